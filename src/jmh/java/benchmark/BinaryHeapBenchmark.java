@@ -0,0 +1,67 @@
+package benchmark;
+
+import heap.BinaryHeap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * heap.BinaryHeap 벤치마크
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryHeapBenchmark {
+
+    static final int ACCESS_KEYS = 1 << 20;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"SEQUENTIAL", "UNIFORM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    Integer[] insertKeys;
+    Integer[] accessKeys;
+    BinaryHeap<Integer> heap;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        insertKeys = KeyDistribution.box(distribution.insertionOrder(size));
+        accessKeys = KeyDistribution.box(distribution.accessKeys(size, ACCESS_KEYS));
+        heap = addAll();
+    }
+
+    /**
+     * 빈 힙에 size개의 원소를 하나씩 넣는 시간
+     */
+    @Benchmark
+    public BinaryHeap<Integer> addAll() {
+        BinaryHeap<Integer> target = new BinaryHeap<>(size + 1);
+        for(Integer key : insertKeys)
+            target.add(key);
+        return target;
+    }
+
+    /**
+     * 같은 원소들로 heapify해서 만드는 시간 (addAll과 비교)
+     */
+    @Benchmark
+    public BinaryHeap<Integer> heapify() {
+        return new BinaryHeap<>(insertKeys);
+    }
+
+    /**
+     * 루트를 꺼내고 새 원소를 넣어서 크기를 유지한다. (스케줄러의 정상 상태)
+     */
+    @Benchmark
+    public Integer removeAndAdd() {
+        Integer top = heap.remove();
+        heap.add(accessKeys[position++ & (ACCESS_KEYS - 1)]);
+        return top;
+    }
+}
@@ -0,0 +1,66 @@
+package benchmark;
+
+import heap.BinaryHeap;
+import heap.MultiQueue;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드에서 우선순위 큐를 사용할 때의 처리량 비교
+ * 1. locked - 하나의 BinaryHeap을 synchronized로 감싼 경우 (지금의 task dispatcher)
+ * 2. multiQueue - heap.MultiQueue
+ *
+ * 모든 스레드가 같은 큐를 공유하고, 꺼낸 만큼 다시 넣어서 크기를 유지한다.
+ * 스레드 수는 -PjmhThreads로 바꿔가며 실행한다.
+ *   for t in 1 2 4 8 16 32 64; do ./gradlew jmh -PjmhInclude=ConcurrentHeapBenchmark -PjmhThreads=$t; done
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentHeapBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    BinaryHeap<Integer> heap;
+    MultiQueue<Integer> multiQueue;
+
+    /**
+     * 서브 힙의 수는 JMH가 실제로 돌리는 스레드 수(-PjmhThreads)에 맞춘다.
+     */
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkParams params) {
+        int threads = Math.max(1, params.getThreads());
+        heap = new BinaryHeap<>(size + 1);
+        multiQueue = new MultiQueue<>(threads);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for(int i=0; i<size; i++) {
+            int key = random.nextInt();
+            heap.add(key);
+            multiQueue.add(key);
+        }
+    }
+
+    @Benchmark
+    public Integer locked() {
+        Integer next = ThreadLocalRandom.current().nextInt();
+        synchronized(heap) {
+            Integer top = heap.remove();
+            heap.add(next);
+            return top;
+        }
+    }
+
+    @Benchmark
+    public Integer multiQueue() {
+        Integer top = multiQueue.poll();
+        multiQueue.add(ThreadLocalRandom.current().nextInt());
+        return top;
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import linkedlist.LinkedList_addTail;
+import linkedlist.LockFreeQueue;
+import linkedlist.RingBufferQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 생산자 스레드와 소비자 스레드 사이에 원소를 넘기는 처리량 비교
+ * 1. locked - LinkedList_addTail을 synchronized로 감싼 경우
+ * 2. lockFree - linkedlist.LockFreeQueue
+ * 3. ringBuffer - linkedlist.RingBufferQueue
+ *
+ * 그룹마다 생산자 3개, 소비자 3개가 같은 큐를 공유한다.
+ * 소비자의 결과에는 비어있어서 null을 받은 호출도 포함되므로 생산자의 처리량을 기준으로 비교한다.
+ *
+ * 크기 제한이 없는 큐(locked, lockFree)도 RingBufferQueue와 같이 CAPACITY개까지만 쌓는다.
+ * 생산자가 더 빠르면 1초 동안 수천만 개의 노드가 쌓여서 할당과 GC를 재거나 메모리가 부족해지기 때문이다.
+ * 큐에 남은 수는 pending(LongAdder)으로 세고, 가득 차면 넣지 않고 false를 반환한다.(ringBufferProduce의 offer와 같은 동작)
+ * LockFreeQueue.size()는 O(n)이므로 사용하지 않는다.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentQueueBenchmark {
+
+    static final int CAPACITY = 1 << 16;
+    static final Integer VALUE = 42;
+
+    LinkedList_addTail<Integer> list;
+    LockFreeQueue<Integer> lockFree;
+    RingBufferQueue<Integer> ringBuffer;
+    // locked, lockFree 큐에 남아있는 원소 수
+    LongAdder pending;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        list = new LinkedList_addTail<>();
+        lockFree = new LockFreeQueue<>();
+        ringBuffer = new RingBufferQueue<>(CAPACITY);
+        pending = new LongAdder();
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public boolean lockedProduce() {
+        if(pending.sum() >= CAPACITY) return false;
+        synchronized(list) {
+            list.addLast(VALUE);
+        }
+        pending.increment();
+        return true;
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(3)
+    public Integer lockedConsume() {
+        Integer value;
+        synchronized(list) {
+            value = list.removeFirst();
+        }
+        if(value != null) pending.decrement();
+        return value;
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public boolean lockFreeProduce() {
+        if(pending.sum() >= CAPACITY) return false;
+        lockFree.addLast(VALUE);
+        pending.increment();
+        return true;
+    }
+
+    @Benchmark
+    @Group("lockFree")
+    @GroupThreads(3)
+    public Integer lockFreeConsume() {
+        Integer value = lockFree.removeFirst();
+        if(value != null) pending.decrement();
+        return value;
+    }
+
+    /**
+     * 가득 차서 넣지 못한 호출도 결과에 포함된다.
+     * (다시 시도하며 기다리면 측정이 끝나 소비자가 멈췄을 때 생산자가 빠져나오지 못한다.)
+     */
+    @Benchmark
+    @Group("ringBuffer")
+    @GroupThreads(3)
+    public boolean ringBufferProduce() {
+        return ringBuffer.offer(VALUE);
+    }
+
+    @Benchmark
+    @Group("ringBuffer")
+    @GroupThreads(3)
+    public Integer ringBufferConsume() {
+        return ringBuffer.removeFirst();
+    }
+}
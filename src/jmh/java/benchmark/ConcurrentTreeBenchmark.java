@@ -0,0 +1,61 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tree.LockFreeSkipList;
+import tree.Tree;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 스레드가 하나의 정렬된 색인에 넣고 찾을 때의 처리량 비교
+ * 1. locked - balanced Tree를 synchronized로 감싼 경우
+ * 2. skipList - tree.LockFreeSkipList
+ *
+ * 각 연산은 무작위 키를 넣고, 다른 무작위 키를 찾는다.
+ * 스레드 수는 -PjmhThreads로 바꿔가며 실행한다.
+ *   for t in 1 2 4 8 16 32 64; do ./gradlew jmh -PjmhInclude=ConcurrentTreeBenchmark -PjmhThreads=$t; done
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentTreeBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    Tree<Integer> tree;
+    LockFreeSkipList<Integer> skipList;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        tree = new Tree<>(true);
+        skipList = new LockFreeSkipList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for(int i=0; i<size; i++) {
+            int key = random.nextInt(size * 4);
+            if(!tree.contains(key)) tree.add(key);
+            skipList.add(key);
+        }
+    }
+
+    @Benchmark
+    public boolean locked() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = random.nextInt(size * 4);
+        synchronized(tree) {
+            if(!tree.contains(key)) tree.add(key);
+            return tree.contains(random.nextInt(size * 4));
+        }
+    }
+
+    @Benchmark
+    public boolean skipList() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        skipList.add(random.nextInt(size * 4));
+        return skipList.contains(random.nextInt(size * 4));
+    }
+}
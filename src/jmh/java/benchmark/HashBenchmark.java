@@ -0,0 +1,107 @@
+package benchmark;
+
+import hash.Hash;
+import hash.HashTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * hash.Hash 벤치마크
+ * 각 스레드가 자기 Hash를 가진다.(Scope.Thread) Hash는 스레드 안전하지 않기 때문이다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+
+    // 조회용 키 배열의 크기 (2의 거듭제곱이라 & 연산으로 순환한다)
+    static final int ACCESS_KEYS = 1 << 20;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"SEQUENTIAL", "UNIFORM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    Integer[] insertKeys;
+    Integer[] accessKeys;
+    Hash<Integer, Integer> hash;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        insertKeys = KeyDistribution.box(distribution.insertionOrder(size));
+        accessKeys = KeyDistribution.box(distribution.accessKeys(size, ACCESS_KEYS));
+        hash = fill(new Hash<>(16));
+    }
+
+    Hash<Integer, Integer> fill(Hash<Integer, Integer> target) {
+        for(Integer key : insertKeys)
+            target.add(key, key);
+        return target;
+    }
+
+    Integer nextKey() {
+        return accessKeys[position++ & (ACCESS_KEYS - 1)];
+    }
+
+    /**
+     * 빈 Hash에 size개의 키를 넣는 시간 (리사이즈 포함)
+     */
+    @Benchmark
+    public Hash<Integer, Integer> addAll() {
+        return fill(new Hash<>(16));
+    }
+
+    /**
+     * 원소 수에 맞춰 테이블을 한 번만 할당한 Hash에 넣는 시간 (addAll과 비교)
+     */
+    @Benchmark
+    public Hash<Integer, Integer> addAllPresized() {
+        return fill(new Hash<>(HashTable.tableSizeFor(size, 0.75)));
+    }
+
+    @Benchmark
+    public Integer getValue() {
+        return hash.getValue(nextKey());
+    }
+
+    /**
+     * 원소 수를 유지하기 위해 삭제한 키를 다시 넣는다.
+     */
+    @Benchmark
+    public boolean removeAndAdd() {
+        Integer key = nextKey();
+        hash.remove(key, key);
+        return hash.add(key, key);
+    }
+
+    /**
+     * 채워진 Hash(테이블 크기 size*2)를 2배로 늘리는 시간
+     * 매 호출마다 새로 채운 Hash가 필요하므로 SingleShotTime으로 측정한다.
+     */
+    @State(Scope.Thread)
+    public static class ResizeState {
+        Hash<Integer, Integer> hash;
+
+        @Setup(Level.Invocation)
+        public void setUp(HashBenchmark benchmark) {
+            hash = benchmark.fill(new Hash<>(benchmark.size * 2));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void resize(ResizeState state, Blackhole blackhole) {
+        state.hash.resize(size * 4);
+        blackhole.consume(state.hash);
+    }
+}
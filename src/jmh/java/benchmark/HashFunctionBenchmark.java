@@ -0,0 +1,117 @@
+package benchmark;
+
+import hash.Hash;
+import hash.HashFunction;
+import hash.HashMetrics;
+import hash.HashTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 해시 함수별로 hash.Hash의 처리량과 버킷 분포를 비교하는 벤치마크
+ * 같은 키 집합을 각 해시 함수로 Hash에 넣어서 add, getValue의 시간을 잰다.
+ * 버킷 분포(평균 탐사 길이, 최대 체인 길이, 충돌률)는 측정에 포함하지 않고 trial이 끝날 때 HashMetrics로 한 줄 출력한다.
+ *
+ * 키 집합
+ * 1. SEQUENTIAL - "key0", "key1", ... 끝만 다른 키 (다항식 해시가 연속된 값이 되는 경우)
+ * 2. PREFIXED - "user:00000000"처럼 같은 접두사와 고정 길이 숫자
+ * 3. RANDOM - 무작위 소문자 12자 + 번호
+ *   ./gradlew jmh -PjmhInclude=HashFunctionBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashFunctionBenchmark {
+
+    public enum KeySet {
+        SEQUENTIAL, PREFIXED, RANDOM;
+
+        String[] keys(int n) {
+            String[] keys = new String[n];
+            Random random = new Random(42);
+            char[] buf = new char[12];
+            for(int i=0; i<n; i++) {
+                switch(this) {
+                    case SEQUENTIAL:
+                        keys[i] = "key" + i;
+                        break;
+                    case PREFIXED:
+                        keys[i] = String.format("user:%08d", i);
+                        break;
+                    default:
+                        for(int j=0; j<buf.length; j++)
+                            buf[j] = (char)('a' + random.nextInt(26));
+                        keys[i] = new String(buf) + i;
+                }
+            }
+            return keys;
+        }
+    }
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"SEQUENTIAL", "PREFIXED", "RANDOM"})
+    KeySet keySet;
+
+    @Param({"polynomial", "spread", "murmur3", "seeded"})
+    String function;
+
+    String[] keys;
+    HashFunction<? super String> hashFunction;
+    Hash<String, Integer> hash;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = keySet.keys(size);
+        switch(function) {
+            case "polynomial": hashFunction = HashTable.polynomial(); break;
+            case "spread": hashFunction = HashTable.spread(); break;
+            case "murmur3": hashFunction = HashTable.murmur3String(0); break;
+            case "seeded": hashFunction = HashTable.seededString(); break;
+            default: throw new IllegalArgumentException("unknown hash function: " + function);
+        }
+        hash = addAll();
+    }
+
+    /**
+     * 버킷 분포를 출력한다. 지표를 켜면 getValue가 느려지므로 측정이 끝난 뒤에 켜서 모든 키를 한 번씩 조회한다.
+     */
+    @TearDown(Level.Trial)
+    public void printDistribution() {
+        HashMetrics metrics = hash.enableMetrics();
+        for(String key : keys)
+            hash.getValue(key);
+        HashMetrics.Snapshot snapshot = metrics.snapshot();
+        System.out.printf("%n%-10s %-10s avgProbe=%.3f maxChain=%d load=%.3f%n",
+                function, keySet, snapshot.averageProbeLength, snapshot.maxChainLength, snapshot.loadFactor);
+        hash.disableMetrics();
+    }
+
+    /**
+     * 1024칸에서 시작해 리사이즈를 거치며 size개의 키를 넣는 시간
+     */
+    @Benchmark
+    public Hash<String, Integer> addAll() {
+        Hash<String, Integer> target = new Hash<>(1 << 10, hashFunction);
+        for(int i=0; i<keys.length; i++)
+            target.add(keys[i], i);
+        return target;
+    }
+
+    /**
+     * 저장된 키를 차례로 조회한다.
+     */
+    @Benchmark
+    public Integer getValue() {
+        String key = keys[position];
+        if(++position == keys.length) position = 0;
+        return hash.getValue(key);
+    }
+}
@@ -0,0 +1,107 @@
+package benchmark;
+
+import java.util.Random;
+
+/**
+ * 벤치마크에서 사용하는 키의 분포
+ * insertionOrder()는 자료구조를 채울 때의 순서(0 ~ size-1을 한 번씩)이고,
+ * accessKeys()는 채운 뒤 조회, 삭제할 때 사용하는 키의 순서이다.
+ *
+ * SEQUENTIAL - 0, 1, 2, ... 순서 (정렬된 입력, 타임스탬프 같은 키)
+ * UNIFORM    - 모든 키가 같은 확률로 무작위
+ * ZIPFIAN    - 일부 키에 접근이 몰리는 분포 (YCSB의 ZipfianGenerator, theta = 0.99)
+ */
+public enum KeyDistribution {
+    SEQUENTIAL, UNIFORM, ZIPFIAN;
+
+    static final long SEED = 42;
+
+    /**
+     * 0 ~ size-1의 키를 한 번씩 담은 배열
+     * SEQUENTIAL은 정렬된 순서, 나머지는 무작위로 섞은 순서이다.
+     * @param size
+     * @return
+     */
+    public int[] insertionOrder(int size) {
+        int[] keys = new int[size];
+        for(int i=0; i<size; i++)
+            keys[i] = i;
+        if(this != SEQUENTIAL) {
+            Random random = new Random(SEED);
+            for(int i=size-1; i>0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = keys[i];
+                keys[i] = keys[j];
+                keys[j] = tmp;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * 0 ~ size-1 범위에서 이 분포를 따르는 키 count개
+     * @param size
+     * @param count
+     * @return
+     */
+    public int[] accessKeys(int size, int count) {
+        int[] keys = new int[count];
+        Random random = new Random(SEED + 1);
+        switch(this) {
+            case SEQUENTIAL:
+                for(int i=0; i<count; i++)
+                    keys[i] = i % size;
+                break;
+            case UNIFORM:
+                for(int i=0; i<count; i++)
+                    keys[i] = random.nextInt(size);
+                break;
+            case ZIPFIAN:
+                Zipfian zipfian = new Zipfian(size, 0.99);
+                for(int i=0; i<count; i++)
+                    keys[i] = zipfian.next(random);
+                break;
+        }
+        return keys;
+    }
+
+    public static Integer[] box(int[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for(int i=0; i<keys.length; i++)
+            boxed[i] = keys[i];
+        return boxed;
+    }
+
+    /**
+     * Gray et al. "Quickly Generating Billion-Record Synthetic Databases"의 Zipf 분포 생성기
+     * 0번 키가 가장 자주 나오고 순위가 낮을수록 드물게 나온다.
+     */
+    static class Zipfian {
+        final int items;
+        final double theta, alpha, zetan, eta;
+
+        Zipfian(int items, double theta) {
+            this.items = items;
+            this.theta = theta;
+            double zeta2 = zeta(2, theta);
+            zetan = zeta(items, theta);
+            alpha = 1.0 / (1.0 - theta);
+            eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetan);
+        }
+
+        static double zeta(long n, double theta) {
+            double sum = 0;
+            for(long i=1; i<=n; i++)
+                sum += 1 / Math.pow(i, theta);
+            return sum;
+        }
+
+        int next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if(uz < 1.0) return 0;
+            if(uz < 1.0 + Math.pow(0.5, theta)) return Math.min(1, items - 1);
+            return (int)Math.min(items - 1, (long)(items * Math.pow(eta * u - eta + 1, alpha)));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package benchmark;
+
+import linkedlist.CircularArrayDeque;
+import linkedlist.LinkedList_addTail;
+import linkedlist.UnrolledLinkedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * linkedlist.LinkedList_addTail, linkedlist.CircularArrayDeque, linkedlist.UnrolledLinkedList 벤치마크
+ * deque로 시작하는 메서드는 같은 작업을 CircularArrayDeque로, unrolled로 시작하는 메서드는 UnrolledLinkedList로 한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkedListBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"SEQUENTIAL", "UNIFORM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    Integer[] insertKeys;
+    LinkedList_addTail<Integer> list;
+    CircularArrayDeque<Integer> deque;
+    UnrolledLinkedList<Integer> unrolled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        insertKeys = KeyDistribution.box(distribution.insertionOrder(size));
+        list = addLastAll();
+        deque = dequeAddLastAll();
+        unrolled = unrolledAddLastAll();
+    }
+
+    /**
+     * 빈 리스트에 size개의 원소를 addLast로 넣는 시간
+     */
+    @Benchmark
+    public LinkedList_addTail<Integer> addLastAll() {
+        LinkedList_addTail<Integer> target = new LinkedList_addTail<>();
+        for(Integer key : insertKeys)
+            target.addLast(key);
+        return target;
+    }
+
+    /**
+     * 큐처럼 사용하는 경우 - 앞에서 꺼내서 뒤에 넣는다.
+     */
+    @Benchmark
+    public Integer removeFirstAddLast() {
+        Integer value = list.removeFirst();
+        list.addLast(value);
+        return value;
+    }
+
+    /**
+     * 스택처럼 뒤에서 꺼내서 다시 뒤에 넣는다.
+     */
+    @Benchmark
+    public Integer removeLastAddLast() {
+        Integer value = list.removeLast();
+        list.addLast(value);
+        return value;
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for(Integer value : list)
+            sum += value;
+        return sum;
+    }
+
+    @Benchmark
+    public CircularArrayDeque<Integer> dequeAddLastAll() {
+        CircularArrayDeque<Integer> target = new CircularArrayDeque<>();
+        for(Integer key : insertKeys)
+            target.addLast(key);
+        return target;
+    }
+
+    @Benchmark
+    public Integer dequeRemoveFirstAddLast() {
+        Integer value = deque.removeFirst();
+        deque.addLast(value);
+        return value;
+    }
+
+    @Benchmark
+    public Integer dequeRemoveLastAddLast() {
+        Integer value = deque.removeLast();
+        deque.addLast(value);
+        return value;
+    }
+
+    @Benchmark
+    public long dequeIterate() {
+        long sum = 0;
+        for(Integer value : deque)
+            sum += value;
+        return sum;
+    }
+
+    @Benchmark
+    public UnrolledLinkedList<Integer> unrolledAddLastAll() {
+        UnrolledLinkedList<Integer> target = new UnrolledLinkedList<>();
+        for(Integer key : insertKeys)
+            target.addLast(key);
+        return target;
+    }
+
+    @Benchmark
+    public Integer unrolledRemoveFirstAddLast() {
+        Integer value = unrolled.removeFirst();
+        unrolled.addLast(value);
+        return value;
+    }
+
+    @Benchmark
+    public long unrolledIterate() {
+        long sum = 0;
+        for(Integer value : unrolled)
+            sum += value;
+        return sum;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import probabilistic.BlockedBloomFilter;
+import probabilistic.BloomFilter;
+import probabilistic.CountMinSketch;
+import probabilistic.HyperLogLog;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * probabilistic 패키지 벤치마크
+ * 필터가 캐시보다 커지면 BloomFilter는 조회마다 캐시 미스가 최대 k번, BlockedBloomFilter는 한 번 난다.
+ * 절반은 넣은 키, 절반은 넣지 않은 키를 조회한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProbabilisticBenchmark {
+
+    @Param({"100000", "10000000", "100000000"})
+    long size;
+
+    BloomFilter bloom;
+    BlockedBloomFilter blocked;
+    CountMinSketch sketch;
+    HyperLogLog hll;
+    long position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        bloom = new BloomFilter(size, 0.01);
+        blocked = new BlockedBloomFilter(size, 0.01);
+        sketch = new CountMinSketch(0.0001, 0.01);
+        hll = new HyperLogLog();
+        for(long i=0; i<size; i++) {
+            bloom.add(i);
+            blocked.add(i);
+        }
+    }
+
+    private long nextKey() {
+        position = (position + 1) % (size * 2);
+        return position;
+    }
+
+    @Benchmark
+    public boolean bloomMightContain() {
+        return bloom.mightContain(nextKey());
+    }
+
+    @Benchmark
+    public boolean blockedMightContain() {
+        return blocked.mightContain(nextKey());
+    }
+
+    @Benchmark
+    public long countMinAddAndEstimate() {
+        long key = nextKey();
+        sketch.add(key, 1);
+        return sketch.estimate(key);
+    }
+
+    @Benchmark
+    public boolean hyperLogLogAdd() {
+        return hll.add(nextKey());
+    }
+}
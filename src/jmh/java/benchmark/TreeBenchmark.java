@@ -0,0 +1,72 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import tree.Tree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tree.Tree 벤치마크
+ * 균형을 맞추는(balanced) 트리로 측정한다.
+ * 균형을 잡지 않는 트리에 SEQUENTIAL 분포(정렬된 순서)로 넣으면 한쪽으로 늘어선 사슬이 되어 add가 O(n)이 되고,
+ * size가 10만만 되어도 setUp 한 번에 수십 초, 1000만이면 며칠이 걸려서 벤치마크가 끝나지 않는다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark {
+
+    static final int ACCESS_KEYS = 1 << 20;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int size;
+
+    @Param({"SEQUENTIAL", "UNIFORM", "ZIPFIAN"})
+    KeyDistribution distribution;
+
+    Integer[] insertKeys;
+    Integer[] accessKeys;
+    List<Integer> sortedKeys;
+    Tree<Integer> tree;
+    int position;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        insertKeys = KeyDistribution.box(distribution.insertionOrder(size));
+        accessKeys = KeyDistribution.box(distribution.accessKeys(size, ACCESS_KEYS));
+        tree = addAll();
+        Integer[] sorted = insertKeys.clone();
+        Arrays.sort(sorted);
+        sortedKeys = Arrays.asList(sorted);
+    }
+
+    /**
+     * 빈 트리에 size개의 키를 하나씩 넣는 시간
+     */
+    @Benchmark
+    public Tree<Integer> addAll() {
+        Tree<Integer> target = new Tree<>(true);
+        for(Integer key : insertKeys)
+            target.add(key);
+        return target;
+    }
+
+    /**
+     * 정렬된 키로 균형 잡힌 트리를 한 번에 만드는 시간
+     * addAll과 같은 balanced 트리를 만들므로, 두 결과의 차이가 원소마다 add하는 것과 O(n) 일괄 구성의 차이이다.
+     */
+    @Benchmark
+    public Tree<Integer> fromSorted() {
+        return Tree.fromSorted(sortedKeys);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return tree.contains(accessKeys[position++ & (ACCESS_KEYS - 1)]);
+    }
+}
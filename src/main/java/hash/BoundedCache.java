@@ -0,0 +1,357 @@
+package hash;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 크기가 제한된 캐시 (W-TinyLFU)
+ * key로 원소를 찾는 것은 Hash가 하고, 어떤 원소를 내보낼지는 노드끼리 직접 연결한 리스트(intrusive list)로 정한다.
+ *
+ * 원소는 세 개의 LRU 리스트 중 하나에 있다.
+ * 1. window - 새로 들어온 원소가 머무는 작은 LRU (전체의 1%)
+ * 2. probation - window에서 밀려나 main에 들어온 원소
+ * 3. protected - probation에 있다가 다시 사용된 원소 (main의 80%)
+ * window에서 밀려난 원소(candidate)를 main에 넣을 자리가 없으면 probation에서 가장 오래 사용되지 않은 원소(victim)와
+ * 최근 사용 빈도를 비교해서 더 자주 쓰인 쪽을 남긴다.(TinyLFU admission)
+ * 빈도는 FrequencySketch로 세므로 이미 내보낸 key의 빈도도 기억한다.
+ * 그래서 한 번씩만 읽고 지나가는 key들(scan)이 자주 쓰는 원소를 밀어내지 못한다.
+ *
+ * 크기는 원소 수로 제한하거나 Weigher로 계산한 가중치의 합으로 제한한다.
+ * expireAfterWrite를 지정하면 추가되거나 값이 바뀐 뒤 그 시간이 지난 원소는 없는 것으로 본다.
+ * 쓰기 순서대로 연결한 리스트도 따로 두어 만료된 원소를 앞에서부터 바로 지운다.
+ *
+ * 여러 스레드가 함께 사용하려면 외부에서 동기화해야 한다.
+ * key는 Hash와 같이 Comparable의 compareTo 결과가 0이면 같은 key로 본다.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class BoundedCache<K, V> {
+
+    static final int WINDOW = 0, PROBATION = 1, PROTECTED = 2;
+
+    /**
+     * 캐시의 원소
+     * prev, next는 접근 순서 리스트(window, probation, protected 중 하나), writePrev, writeNext는 쓰기 순서 리스트의 연결이다.
+     */
+    static final class Node<K, V> {
+        K key;
+        V value;
+        int weight;
+        long writeTime;
+        int queue;
+        Node<K, V> prev, next;
+        Node<K, V> writePrev, writeNext;
+
+        Node() {
+            prev = next = writePrev = writeNext = this;
+        }
+
+        Node(K key, V value, int weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    final Hash<K, Node<K, V>> data;
+    final FrequencySketch sketch;
+    final Weigher<? super K, ? super V> weigher;
+
+    // 리스트의 머리(sentinel) 노드. head.next가 가장 최근, head.prev가 가장 오래된 원소이다.
+    final Node<K, V> window = new Node<>();
+    final Node<K, V> probation = new Node<>();
+    final Node<K, V> protectedQueue = new Node<>();
+    final Node<K, V> writeOrder = new Node<>();
+
+    final long maximumWeight, windowMaximum, mainMaximum, protectedMaximum;
+    long windowWeight, mainWeight, protectedWeight;
+    int size;
+
+    final long expireAfterWriteNanos;
+    // 현재 시각(나노초)을 알려주는 함수
+    LongSupplier ticker = System::nanoTime;
+
+    long hitCount, missCount, evictionCount;
+
+    /**
+     * 원소 수로 크기를 제한하는 캐시
+     * @param maximumSize
+     */
+    public BoundedCache(long maximumSize) {
+        this(maximumSize, (k, v) -> 1, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public BoundedCache(long maximumSize, long expireAfterWrite, TimeUnit unit) {
+        this(maximumSize, (k, v) -> 1, expireAfterWrite, unit);
+    }
+
+    /**
+     * 가중치의 합으로 크기를 제한하는 캐시
+     * @param maximumWeight - 가중치 합의 최대값
+     * @param weigher - 원소의 가중치를 계산하는 함수
+     * @param expireAfterWrite - 0이면 만료되지 않는다.
+     * @param unit
+     */
+    public BoundedCache(long maximumWeight, Weigher<? super K, ? super V> weigher, long expireAfterWrite, TimeUnit unit) {
+        if(maximumWeight < 1) throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        if(expireAfterWrite < 0) throw new IllegalArgumentException("expireAfterWrite must not be negative: " + expireAfterWrite);
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        windowMaximum = Math.max(1, maximumWeight / 100);
+        mainMaximum = maximumWeight - windowMaximum;
+        protectedMaximum = mainMaximum * 8 / 10;
+        expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+        int expected = (int)Math.min(maximumWeight, 1 << 16);
+        data = new Hash<>(HashTable.tableSizeFor(expected, 0.75), HashTable.spread());
+        sketch = new FrequencySketch(expected);
+    }
+
+    /**
+     * key의 값을 찾는다.
+     * 찾으면 그 원소를 최근에 사용한 것으로 옮긴다.
+     * @param key
+     * @return - 없거나 만료되었으면 null
+     */
+    public V get(K key) {
+        long now = ticker.getAsLong();
+        expireEntries(now);
+        sketch.increment(key);
+        Node<K, V> node = data.getValue(key);
+        if(node == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * key, value를 추가하거나 기존 값을 바꾼다.
+     * 새 원소는 window에 들어가고, 크기를 넘으면 내보낼 원소를 고른다.
+     * 가중치가 maximumWeight보다 큰 원소는 넣지 않는다.
+     * @param key
+     * @param value
+     * @return - 기존 값, 없었으면 null
+     */
+    public V put(K key, V value) {
+        long now = ticker.getAsLong();
+        expireEntries(now);
+        sketch.increment(key);
+        int weight = weigher.weigh(key, value);
+        if(weight < 0) throw new IllegalArgumentException("negative weight: " + weight);
+        Node<K, V> node = data.getValue(key);
+        if(weight > maximumWeight) {
+            evictionCount++;
+            if(node != null) removeNode(node);
+            return node == null ? null : node.value;
+        }
+        if(node == null) {
+            node = new Node<>(key, value, weight, now);
+            data.add(key, node);
+            size++;
+            node.queue = WINDOW;
+            linkFirst(window, node);
+            windowWeight += weight;
+            linkWriteLast(node);
+            sketch.ensureCapacity(size);
+            evictEntries();
+            return null;
+        }
+        V old = node.value;
+        node.value = value;
+        node.writeTime = now;
+        unlinkWrite(node);
+        linkWriteLast(node);
+        addWeight(node, weight - node.weight);
+        node.weight = weight;
+        onAccess(node);
+        evictEntries();
+        return old;
+    }
+
+    /**
+     * @param key
+     * @return - 삭제된 값, 없었으면 null
+     */
+    public V remove(K key) {
+        Node<K, V> node = data.getValue(key);
+        if(node == null) return null;
+        removeNode(node);
+        return node.value;
+    }
+
+    public boolean containsKey(K key) {
+        Node<K, V> node = data.getValue(key);
+        return node != null && !isExpired(node, ticker.getAsLong());
+    }
+
+    /**
+     * 만료된 원소를 모두 지운다.
+     * get, put에서도 호출되므로 따로 부를 필요는 없지만, 오랫동안 사용하지 않은 캐시의 메모리를 비울 때 사용한다.
+     */
+    public void cleanUp() {
+        expireEntries(ticker.getAsLong());
+    }
+
+    public void clear() {
+        while(writeOrder.writeNext != writeOrder)
+            removeNode(writeOrder.writeNext);
+    }
+
+    private void addWeight(Node<K, V> node, int delta) {
+        if(node.queue == WINDOW) windowWeight += delta;
+        else {
+            mainWeight += delta;
+            if(node.queue == PROTECTED) protectedWeight += delta;
+        }
+    }
+
+    /**
+     * 사용된 원소를 옮긴다.
+     * window, protected에 있으면 맨 앞으로 옮기고, probation에 있으면 protected로 올린다.
+     * protected가 가득 차면 가장 오래된 원소를 probation으로 내린다.
+     */
+    private void onAccess(Node<K, V> node) {
+        unlink(node);
+        if(node.queue == WINDOW) {
+            linkFirst(window, node);
+        } else if(node.queue == PROTECTED) {
+            linkFirst(protectedQueue, node);
+        } else {
+            node.queue = PROTECTED;
+            protectedWeight += node.weight;
+            linkFirst(protectedQueue, node);
+            while(protectedWeight > protectedMaximum) {
+                Node<K, V> demoted = protectedQueue.prev;
+                unlink(demoted);
+                demoted.queue = PROBATION;
+                protectedWeight -= demoted.weight;
+                linkFirst(probation, demoted);
+            }
+        }
+    }
+
+    /**
+     * window가 넘치면 오래된 원소부터 main(probation)으로 옮기고,
+     * main이 넘치면 옮겨진 원소(candidate)와 probation의 가장 오래된 원소(victim) 중 하나를 내보낸다.
+     */
+    private void evictEntries() {
+        while(windowWeight > windowMaximum) {
+            Node<K, V> candidate = window.prev;
+            unlink(candidate);
+            windowWeight -= candidate.weight;
+            candidate.queue = PROBATION;
+            mainWeight += candidate.weight;
+            linkFirst(probation, candidate);
+            evictFromMain(candidate);
+        }
+        evictFromMain(null);
+    }
+
+    private void evictFromMain(Node<K, V> candidate) {
+        while(mainWeight > mainMaximum) {
+            Node<K, V> victim = probation.prev != probation ? probation.prev : protectedQueue.prev;
+            //비교할 candidate가 없거나 probation에 candidate밖에 없으면 그대로 내보낸다.
+            if(candidate == null || victim == candidate) {
+                evict(victim);
+                if(victim == candidate) return;
+                continue;
+            }
+            if(sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                return;
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        evictionCount++;
+        removeNode(node);
+    }
+
+    private void removeNode(Node<K, V> node) {
+        data.remove(node.key, node);
+        unlink(node);
+        unlinkWrite(node);
+        addWeight(node, -node.weight);
+        size--;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    /**
+     * 쓰기 순서 리스트의 앞(가장 오래전에 쓴 원소)부터 만료된 원소를 지운다.
+     * 모든 원소의 만료 시간이 같으므로 만료되지 않은 원소가 나오면 멈춘다.
+     */
+    private void expireEntries(long now) {
+        if(expireAfterWriteNanos == 0) return;
+        while(writeOrder.writeNext != writeOrder && isExpired(writeOrder.writeNext, now))
+            evict(writeOrder.writeNext);
+    }
+
+    private static <K, V> void linkFirst(Node<K, V> head, Node<K, V> node) {
+        node.prev = head;
+        node.next = head.next;
+        head.next.prev = node;
+        head.next = node;
+    }
+
+    private static <K, V> void unlink(Node<K, V> node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = node.next = null;
+    }
+
+    private void linkWriteLast(Node<K, V> node) {
+        node.writeNext = writeOrder;
+        node.writePrev = writeOrder.writePrev;
+        writeOrder.writePrev.writeNext = node;
+        writeOrder.writePrev = node;
+    }
+
+    private static <K, V> void unlinkWrite(Node<K, V> node) {
+        node.writePrev.writeNext = node.writeNext;
+        node.writeNext.writePrev = node.writePrev;
+        node.writePrev = node.writeNext = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 원소들의 가중치 합 (원소 수로 제한하는 캐시에서는 size()와 같다.)
+     * @return
+     */
+    public long weightedSize() {
+        return windowWeight + mainWeight;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    /**
+     * 크기를 넘거나 만료되어 내보낸 원소의 수 (remove로 삭제한 원소는 포함하지 않는다.)
+     * @return
+     */
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double)hitCount / requests;
+    }
+}
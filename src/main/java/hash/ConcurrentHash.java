@@ -0,0 +1,253 @@
+package hash;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 여러 스레드가 동시에 사용할 수 있는 Hash
+ * Hash와 같이 버킷마다 HashElement의 연결 리스트를 두는 체이닝 방식이다.
+ *
+ * 1. 쓰기(add, remove)는 락 스트라이핑(lock striping)을 사용한다.
+ *    전체 테이블에 하나의 락을 거는 대신 버킷들을 stripe개의 그룹으로 나누고 그룹마다 락을 둔다.
+ *    테이블 크기와 stripe 개수가 모두 2의 거듭제곱이고 테이블 크기 >= stripe 개수이므로 한 버킷은 항상 하나의 락에만 속한다.
+ * 2. 읽기(getValue, containsKey)는 락을 사용하지 않는다.
+ *    버킷의 head와 각 노드의 next, value가 volatile이므로 쓰기 스레드가 연결한 노드를 안전하게 볼 수 있다.
+ * 3. 리사이즈는 모든 락을 잡은 뒤 새 배열에 노드를 복사해서 만들고 table 참조만 바꾼다.
+ *    기존 배열의 노드는 건드리지 않으므로 리사이즈 중에도 읽기 스레드는 기존 배열을 그대로 읽는다.
+ *    읽기가 끝났을 때 table이 바뀌어 있으면 새 배열에서 다시 읽는다.(기존 배열에서 읽은 값이 오래된 값일 수 있기 때문)
+ *
+ * 키는 Hash와 같이 Comparable의 compareTo 결과가 0이면 같은 키로 본다.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class ConcurrentHash<K, V> {
+
+    /**
+     * Hash의 HashElement에 해당하는 노드
+     * 읽기 스레드가 락 없이 따라갈 수 있도록 value와 next가 volatile이다.
+     * @param <K>
+     * @param <V>
+     */
+    static final class HashElement<K, V> {
+        final int hash;
+        final K key;
+        volatile V value;
+        volatile HashElement<K, V> next;
+
+        HashElement(int hash, K key, V value, HashElement<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    // stripe별 원소 수를 저장할 때 서로 다른 캐시라인에 놓이도록 띄우는 간격(int 16개 = 64바이트)
+    private static final int COUNT_PADDING = 16;
+
+    volatile AtomicReferenceArray<HashElement<K, V>> table;
+    final ReentrantLock[] locks;
+    final AtomicIntegerArray counts;
+    final int stripeMask;
+    final double maxLoadFactor;
+    // key를 int로 바꾸는 해시 함수. 기본값은 key.hashCode()를 한 번 더 섞는 HashTable.spread()이다.
+    final HashFunction<? super K> hashFunction;
+
+    public ConcurrentHash(int tableSize) {
+        this(tableSize, 16);
+    }
+
+    /**
+     * 생성자
+     * concurrencyLevel은 동시에 쓰기를 할 수 있는 스레드 수의 예상치로, stripe(락)의 개수가 된다.
+     * tableSize와 concurrencyLevel 모두 2의 거듭제곱으로 올림하며 tableSize는 최소 concurrencyLevel 이상이 된다.
+     * @param tableSize
+     * @param concurrencyLevel
+     */
+    public ConcurrentHash(int tableSize, int concurrencyLevel) {
+        this(tableSize, concurrencyLevel, HashTable.spread());
+    }
+
+    /**
+     * key.hashCode() 대신 사용할 해시 함수를 지정하는 생성자
+     * 테이블 크기가 2의 거듭제곱이라 해시값의 하위 비트로 버킷과 stripe를 고르므로,
+     * HashTable.murmur3String(seed)처럼 비트를 골고루 섞는 함수를 넘겨야 한다.(polynomial()은 버킷이 뭉치기 쉽다.)
+     * @param tableSize
+     * @param concurrencyLevel
+     * @param hashFunction
+     */
+    public ConcurrentHash(int tableSize, int concurrencyLevel, HashFunction<? super K> hashFunction) {
+        this.hashFunction = hashFunction;
+        int stripes = HashTable.nextPowerOfTwo(concurrencyLevel);
+        locks = new ReentrantLock[stripes];
+        for(int i=0; i<stripes; i++)
+            locks[i] = new ReentrantLock();
+        counts = new AtomicIntegerArray(stripes * COUNT_PADDING);
+        stripeMask = stripes - 1;
+        maxLoadFactor = 0.75;
+        table = new AtomicReferenceArray<>(HashTable.nextPowerOfTwo(Math.max(tableSize, stripes)));
+    }
+
+    private int spread(K key) {
+        return hashFunction.hash(key);
+    }
+
+    private static <K> boolean matches(HashElement<K, ?> he, int hash, K key) {
+        return he.hash == hash && ((Comparable<K>)key).compareTo(he.key) == 0;
+    }
+
+    /**
+     * key, value를 추가하는 메서드
+     * 같은 key가 이미 있으면 value를 바꾼다.
+     * 새 노드는 버킷의 맨 앞에 연결하므로 읽기 스레드는 연결 전 또는 연결 후의 리스트 중 하나를 온전히 보게 된다.
+     * @param key
+     * @param value
+     * @return - 새로운 key가 추가되었으면 true, 기존 value를 바꿨으면 false
+     */
+    public boolean add(K key, V value) {
+        int hash = spread(key);
+        int stripe = hash & stripeMask;
+        ReentrantLock lock = locks[stripe];
+        int stripeCount;
+        AtomicReferenceArray<HashElement<K, V>> tab;
+        lock.lock();
+        try {
+            //리사이즈는 모든 락을 잡고 진행하므로 락을 잡은 뒤에 읽은 table은 바뀌지 않는다.
+            tab = table;
+            int index = hash & (tab.length() - 1);
+            HashElement<K, V> head = tab.get(index);
+            for(HashElement<K, V> he = head; he != null; he = he.next) {
+                if(matches(he, hash, key)) {
+                    he.value = value;
+                    return false;
+                }
+            }
+            tab.set(index, new HashElement<>(hash, key, value, head));
+            stripeCount = counts.incrementAndGet(stripe * COUNT_PADDING);
+        } finally {
+            lock.unlock();
+        }
+        //stripe마다 전체 원소의 1/stripe 정도가 들어간다고 보고 stripe 단위로 적재율을 확인한다.
+        if(stripeCount > tab.length() * maxLoadFactor / locks.length)
+            resize(tab);
+        return true;
+    }
+
+    /**
+     * key를 삭제하는 메서드
+     * 앞 노드의 next를 삭제할 노드의 다음 노드로 바꾼다.
+     * 삭제된 노드를 이미 읽고 있던 읽기 스레드도 그 노드의 next를 따라 나머지 리스트를 끝까지 볼 수 있다.
+     * @param key
+     * @return - 삭제된 value, 없으면 null
+     */
+    public V remove(K key) {
+        int hash = spread(key);
+        int stripe = hash & stripeMask;
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            AtomicReferenceArray<HashElement<K, V>> tab = table;
+            int index = hash & (tab.length() - 1);
+            HashElement<K, V> previous = null;
+            for(HashElement<K, V> he = tab.get(index); he != null; previous = he, he = he.next) {
+                if(matches(he, hash, key)) {
+                    if(previous == null) tab.set(index, he.next);
+                    else previous.next = he.next;
+                    counts.decrementAndGet(stripe * COUNT_PADDING);
+                    return he.value;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * key에 해당하는 value를 락 없이 찾는다.
+     * 찾는 동안 리사이즈가 끝나서 table이 바뀌었다면 새 table에서 다시 찾는다.
+     * @param key
+     * @return
+     */
+    public V getValue(K key) {
+        int hash = spread(key);
+        AtomicReferenceArray<HashElement<K, V>> tab;
+        HashElement<K, V> found;
+        V value;
+        do {
+            tab = table;
+            found = find(tab, hash, key);
+            value = found == null ? null : found.value;
+        } while(tab != table);
+        return value;
+    }
+
+    public boolean containsKey(K key) {
+        int hash = spread(key);
+        AtomicReferenceArray<HashElement<K, V>> tab;
+        HashElement<K, V> found;
+        do {
+            tab = table;
+            found = find(tab, hash, key);
+        } while(tab != table);
+        return found != null;
+    }
+
+    private HashElement<K, V> find(AtomicReferenceArray<HashElement<K, V>> tab, int hash, K key) {
+        for(HashElement<K, V> he = tab.get(hash & (tab.length() - 1)); he != null; he = he.next) {
+            if(matches(he, hash, key)) return he;
+        }
+        return null;
+    }
+
+    /**
+     * 테이블을 2배로 늘린다.
+     * 모든 stripe의 락을 0번부터 순서대로 잡는다.(쓰기 스레드는 락을 하나만 잡으므로 교착상태가 생기지 않는다.)
+     * 그 사이 다른 스레드가 이미 리사이즈를 끝냈다면 아무것도 하지 않는다.
+     * 기존 노드의 next를 바꾸면 기존 배열을 읽고 있는 스레드가 원소를 놓칠 수 있으므로 노드를 새로 만들어 복사한다.
+     * @param expected - 리사이즈가 필요하다고 판단했을 때의 table
+     */
+    private void resize(AtomicReferenceArray<HashElement<K, V>> expected) {
+        for(ReentrantLock lock : locks)
+            lock.lock();
+        try {
+            AtomicReferenceArray<HashElement<K, V>> tab = table;
+            if(tab != expected) return;
+            int newSize = tab.length() * 2;
+            if(newSize <= 0) return;
+            AtomicReferenceArray<HashElement<K, V>> newTab = new AtomicReferenceArray<>(newSize);
+            for(int i=0; i<tab.length(); i++) {
+                for(HashElement<K, V> he = tab.get(i); he != null; he = he.next) {
+                    int index = he.hash & (newSize - 1);
+                    newTab.set(index, new HashElement<>(he.hash, he.key, he.value, newTab.get(index)));
+                }
+            }
+            table = newTab;
+        } finally {
+            for(int i=locks.length-1; i>=0; i--)
+                locks[i].unlock();
+        }
+    }
+
+    /**
+     * 원소의 개수
+     * 다른 스레드가 쓰는 중이면 근사값이다.
+     * @return
+     */
+    public int size() {
+        int sum = 0;
+        for(int i=0; i<locks.length; i++)
+            sum += counts.get(i * COUNT_PADDING);
+        return sum;
+    }
+
+    public int tableSize() {
+        return table.length();
+    }
+
+    public double loadFactor() {
+        return (double)size()/tableSize();
+    }
+}
@@ -0,0 +1,102 @@
+package hash;
+
+/**
+ * 최근에 key가 얼마나 자주 사용되었는지 근사적으로 세는 4비트 Count-Min sketch
+ * BoundedCache가 새 원소를 받아들일지(admission) 결정할 때 사용한다.
+ *
+ * long 하나에 4비트 카운터 16개를 담는다. key마다 서로 다른 4개의 long에서 카운터를 하나씩 골라 증가시키고,
+ * 빈도는 그 4개 중 가장 작은 값으로 추정한다.(다른 key와 겹쳐서 커질 수는 있어도 작아지지는 않는다.)
+ * 카운터는 15에서 더 올라가지 않는다.
+ *
+ * 증가 횟수가 sampleSize에 도달하면 모든 카운터를 절반으로 줄인다.(aging)
+ * 그래서 예전에 많이 쓰였지만 지금은 쓰이지 않는 key의 빈도는 점점 줄어든다.
+ */
+class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    long[] table;
+    int tableMask;
+    int sampleSize;
+    int size;
+
+    FrequencySketch(long maximumSize) {
+        ensureCapacity(maximumSize);
+    }
+
+    /**
+     * 원소 수가 maximumSize가 될 때까지 추정이 정확하도록 테이블 크기를 정한다.
+     * 테이블이 커지면 지금까지의 카운터는 버린다.
+     * @param maximumSize
+     */
+    void ensureCapacity(long maximumSize) {
+        int capacity = HashTable.nextPowerOfTwo((int)Math.min(Math.max(maximumSize, 8), 1 << 30));
+        if(table != null && table.length >= capacity) return;
+        table = new long[capacity];
+        tableMask = capacity - 1;
+        sampleSize = (int)Math.min(10L * capacity, Integer.MAX_VALUE);
+        size = 0;
+    }
+
+    private static int spread(Object key) {
+        return HashTable.mix32(key.hashCode());
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int)h & tableMask;
+    }
+
+    /**
+     * key의 추정 빈도 (0 ~ 15)
+     * @param key
+     * @return
+     */
+    int frequency(Object key) {
+        int hash = spread(key);
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for(int i=0; i<4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int)((table[indexOf(hash, i)] >>> offset) & 15L);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * key의 카운터 4개를 하나씩 증가시킨다.
+     * @param key
+     */
+    void increment(Object key) {
+        int hash = spread(key);
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for(int i=0; i<4; i++) {
+            int index = indexOf(hash, i);
+            int offset = (start + i) << 2;
+            if(((table[index] >>> offset) & 15L) != 15L) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if(added && ++size == sampleSize)
+            reset();
+    }
+
+    /**
+     * 모든 카운터를 절반으로 줄인다.
+     * 홀수였던 카운터는 반올림 오차가 생기므로 그만큼 size에서 더 뺀다.
+     */
+    private void reset() {
+        int odd = 0;
+        for(int i=0; i<table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size - (odd >>> 2)) >>> 1;
+    }
+}
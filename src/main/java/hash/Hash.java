@@ -1,7 +1,22 @@
 package hash;
 
+import snapshot.Codec;
+import snapshot.CorruptSnapshotException;
+import snapshot.SnapshotHeader;
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class Hash<K, V> {
 
@@ -9,12 +24,16 @@ public class Hash<K, V> {
      * 기존 자바의 HashMap에서 Entry객체와 동일한 객체로 보면 된다.\
      * 내부에 Key, Value를 지니고 있고 Comparable인터페이스를 구현하여 Key값이 같으면 동일한 객체로 본다.
      * 객체를 생성할 때 Key, Value를 초기화한다.
+     * 스트림에서 key와 value를 함께 꺼낼 수 있도록 Map.Entry를 구현한다.
+     * 같은 버킷의 원소끼리 next로 이어진다.(ConcurrentHash와 같은 방식) 버킷마다 LinkedList를 두지 않으므로 원소 하나에 객체 하나만 만든다.
      * @param <K>
      * @param <V>
      */
-    class HashElement<K, V> implements Comparable<HashElement<K, V>> {
+    class HashElement<K, V> implements Comparable<HashElement<K, V>>, Map.Entry<K, V> {
         K key;
         V value;
+        // 같은 버킷의 다음 원소 (equals, hashCode에는 사용하지 않는다.)
+        HashElement<K, V> next;
         public HashElement(K key, V value) {
             this.key = key;
             this.value = value;
@@ -24,6 +43,36 @@ public class Hash<K, V> {
         public int compareTo(HashElement<K, V> o) {
             return (((Comparable<K>)this.key).compareTo(o.key));
         }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        // Map.Entry의 규약대로 key와 value가 모두 같으면 같은 Entry로 본다.
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Map.Entry)) return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>)o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
     }
 
     // 객체의 갯수 및 Array 크기
@@ -31,126 +80,657 @@ public class Hash<K, V> {
 
     // 람다로 표현되는 적재율(Entry의 갯수 / 테이블사이즈(Array사이즈)
     double maxLoadFactor;
-    LinkedList<HashElement<K,V>>[] harray;
+    // 각 칸은 버킷의 첫 원소이다. 빈 버킷은 null
+    HashElement<K,V>[] harray;
+
+    /**
+     * 점진적 리사이즈(incremental resize)에 사용하는 필드
+     * 리사이즈 중에는 기존 배열(oldArray)과 새 배열(harray)이 함께 존재한다.
+     * oldArray의 rehashIndex보다 작은 인덱스의 버킷은 이미 새 배열로 옮겨진 상태이다.
+     * add, getValue, remove가 호출될 때마다 rehashStep개의 버킷만 옮기므로 한 번의 연산이 멈추는 시간에 상한이 생긴다.
+     */
+    boolean incrementalResize;
+    int rehashStep;
+    HashElement<K,V>[] oldArray;
+    int oldTableSize, rehashIndex;
+
+    // 점진적 리사이즈에서 연산 1회당 옮기는 기본 버킷 수
+    static final int DEFAULT_REHASH_STEP = 4;
+
+    // key를 int로 바꾸는 해시 함수. 기본값은 key.hashCode()이다.
+    HashFunction<? super K> hashFunction;
+
+    // 원소가 추가, 삭제되거나 리사이즈가 시작될 때마다 증가한다. 반복 중에 Hash가 바뀌었는지 확인하는 데 사용한다.
+    int modCount;
+
+    // enableMetrics()를 호출하기 전에는 null이다. 각 연산은 null인지만 확인하므로 지표를 끄면 비용이 거의 없다.
+    HashMetrics metrics;
 
     /**
      * 생성자
-     * tableSize를 매개변수로 전달받아 tableSize크기의 LinkedList-Array를 만든다.
+     * tableSize를 매개변수로 전달받아 tableSize크기의 버킷 배열을 만든다.
      * LoadFactor = HashElement의 개수 / 전체 Array의 길이
      * maxLoadFactor는 보통 0.6~0.7사이로 설정한다.
      * numElements는 요소(HashElement)의 갯수이다. 생성자이므로 0으로 초기화한다.
-     * 배열의 인덱스마다 LinkedList를 초기화한다.(인스턴스 생성한다.)
+     * 버킷은 원소끼리 next로 이은 체인이므로 빈 버킷은 null이고 따로 만드는 객체가 없다.
      *
      * @param tableSize
      */
     public Hash(int tableSize) {
+        this(tableSize, false);
+    }
+
+    /**
+     * incrementalResize가 true이면 적재율을 넘었을 때 테이블 전체를 한 번에 옮기지 않고
+     * 이후의 add, getValue, remove 호출마다 버킷을 조금씩 새 배열로 옮긴다.
+     * @param tableSize
+     * @param incrementalResize
+     */
+    public Hash(int tableSize, boolean incrementalResize) {
+        this(tableSize, incrementalResize, HashTable.defaultHash());
+    }
+
+    /**
+     * key.hashCode() 대신 사용할 해시 함수를 지정하는 생성자
+     * HashTable.murmur3String(seed)처럼 비트를 잘 섞는 함수를 쓰면 버킷이 한쪽에 몰리는 것을 줄일 수 있다.
+     * @param tableSize
+     * @param hashFunction
+     */
+    public Hash(int tableSize, HashFunction<? super K> hashFunction) {
+        this(tableSize, false, hashFunction);
+    }
+
+    public Hash(int tableSize, boolean incrementalResize, HashFunction<? super K> hashFunction) {
         this.tableSize = tableSize;
+        this.hashFunction = hashFunction;
+        this.incrementalResize = incrementalResize;
+        rehashStep = DEFAULT_REHASH_STEP;
         maxLoadFactor = 0.75;
         numElements = 0;
-        harray = (LinkedList<HashElement<K,V>>[]) new LinkedList[tableSize];
+        harray = (HashElement<K,V>[]) new HashElement[tableSize];
+    }
 
-        for(int i=0; i<tableSize; i++) {
-            harray[i] = new LinkedList<HashElement<K, V>>();
-        }
+    /**
+     * map의 모든 원소로 Hash를 만든다.
+     * 원소 수로 필요한 테이블 크기를 먼저 구해서 한 번만 할당하므로, 작은 테이블에서 시작해 여러 번 두 배로 늘리는 비용이 없다.
+     * @param map
+     */
+    public Hash(Map<? extends K, ? extends V> map) {
+        this(map, HashTable.defaultHash());
+    }
+
+    public Hash(Map<? extends K, ? extends V> map, HashFunction<? super K> hashFunction) {
+        this(HashTable.tableSizeFor(map.size(), 0.75), hashFunction);
+        addAll(map);
+    }
+
+    /**
+     * 점진적 리사이즈에서 연산 1회당 옮길 버킷 수를 정한다.
+     * 값이 클수록 리사이즈가 빨리 끝나고, 작을수록 연산 1회의 최대 지연시간이 줄어든다.
+     * @param rehashStep
+     */
+    public void setRehashStep(int rehashStep) {
+        if(rehashStep < 1) throw new IllegalArgumentException("rehashStep must be positive: " + rehashStep);
+        this.rehashStep = rehashStep;
+    }
+
+    /**
+     * key의 해시값을 size크기의 배열 인덱스로 바꾼다.
+     * 해시 함수를 이용해 int값으로 변경하고, &연산으로 양수로 바꾼 뒤, 모듈러 연산으로 인덱스를 구한다.
+     * @param key
+     * @param size
+     * @return
+     */
+    int indexFor(K key, int size) {
+        return (hashFunction.hash(key) & 0x7fffffff) % size;
+    }
+
+    /**
+     * 리사이즈가 진행중일 때 key가 아직 옮겨지지 않은 기존 배열의 버킷에 있을 수 있는지 확인한다.
+     * @param key
+     * @return - 기존 배열의 버킷의 첫 원소, 이미 옮겨졌으면 null
+     */
+    private HashElement<K,V> oldBucket(K key) {
+        if(oldArray == null) return null;
+        int oldIndex = indexFor(key, oldTableSize);
+        if(oldIndex < rehashIndex) return null;
+        return oldArray[oldIndex];
+    }
+
+    public boolean isResizing() {
+        return oldArray != null;
     }
 
     /**
      * key, value값을 받아서 추가하는 매서드이다.
      * loadFactor를 계산하여 maxLoadFactor보다 작을 경우만 적용한다.
      * 만약 loadFactor가 maxLoadFactor를 넘어섰을 경우 사이즈를 2배로 늘린다.
+     * 새 원소는 버킷의 맨 앞에 넣는다. 같은 key를 여러 번 넣었으면 getValue, remove는 가장 최근에 넣은 원소를 찾는다.
      * @param key
      * @param value
      * @return
      */
     public boolean add(K key, V value) {
-        if(loadFactor() > maxLoadFactor)
-            resize(tableSize*2);
+        if(loadFactor() > maxLoadFactor && !isResizing()) {
+            if(incrementalResize)
+                startResize(tableSize*2);
+            else
+                resize(tableSize*2);
+        }
+        rehash(rehashStep);
 
         HashElement<K,V> he = new HashElement<>(key, value);
-        int hashval = key.hashCode();   //hashCode() 메서드를 이용해 int값으로 변경한다.
-        hashval &= 0x7fffffff;  //&연산을 이용해 int값을 양수로 변경해준다.
-        hashval %= tableSize;   //모듈러 연산을 통해 int정수를 array Index로 변경해준다.
+        int hashval = indexFor(key, tableSize);
 
-        harray[hashval].add(he);    //위 연산의 결과인 array Index의 인스턴스(LinkedList)에 방금 생성한 HashElement를 추가한다.
+        if(metrics != null) metrics.recordAdd(harray[hashval] != null);
+        he.next = harray[hashval];    //위 연산의 결과인 array Index의 버킷 맨 앞에 방금 생성한 HashElement를 추가한다.
+        harray[hashval] = he;
         numElements++;  //전체 요소의 크기를 1 증가시킨다.
+        modCount++;
         return true;
     }
 
     /**
      * 입력된 key값의 hash코드를 찾아낸다.
-     * hash
+     * hash코드로 구한 버킷에서 key가 같은 HashElement를 찾아 삭제한다.
+     * 리사이즈 중이면 아직 옮겨지지 않은 기존 배열의 버킷도 확인한다.
      * @param key
      * @param value
-     * @return
+     * @return - 삭제했으면 true, key가 없으면 false
      */
     public boolean remove(K key, V value) {
-        int hashval = key.hashCode();
-        hashval &= 0x7fffffff;
-        hashval %= tableSize;
-        HashElement<K, V> he = new HashElement<>(key, value);
-        harray[hashval].remove(he);
+        rehash(rehashStep);
+        if(removeFrom(harray, indexFor(key, tableSize), key)
+                || (oldArray != null && indexFor(key, oldTableSize) >= rehashIndex && removeFrom(oldArray, indexFor(key, oldTableSize), key))) {
+            numElements--;
+            modCount++;
+            if(metrics != null) metrics.recordRemove();
+            return true;
+        }
+        return false;
+    }
 
-        numElements--;
-        return true;
+    /**
+     * array[index] 버킷에서 key가 같은 원소를 찾아 체인에서 떼어낸다.
+     */
+    private boolean removeFrom(HashElement<K,V>[] array, int index, K key) {
+        HashElement<K,V> prev = null;
+        for(HashElement<K,V> he = array[index]; he != null; prev = he, he = he.next) {
+            if(((Comparable<K>)key).compareTo(he.key) == 0) {
+                if(prev == null) array[index] = he.next;
+                else prev.next = he.next;
+                he.next = null;
+                return true;
+            }
+        }
+        return false;
     }
 
     public V getValue(K key) {
-        int hashval = key.hashCode() & 0x7fffffff % tableSize;
-        for(HashElement<K, V> he : harray[hashval]) {
+        rehash(rehashStep);
+        HashElement<K,V> list = harray[indexFor(key, tableSize)];
+        HashElement<K,V> he = find(list, key);
+        if(he == null) {
+            HashElement<K,V> old = oldBucket(key);
+            he = find(old, key);
+            if(metrics != null) metrics.recordGet(probeLength(list, null) + probeLength(old, he), he != null);
+        } else if(metrics != null) {
+            metrics.recordGet(probeLength(list, he), true);
+        }
+        return he == null ? null : he.value;
+    }
+
+    /**
+     * find가 버킷에서 비교한 원소 수
+     * 지표를 켰을 때만 호출하므로 find의 반복문에는 카운터를 넣지 않는다.
+     * @param list - 버킷의 첫 원소
+     * @param found - find가 찾은 원소, 없으면 null
+     * @return
+     */
+    private int probeLength(HashElement<K,V> list, HashElement<K,V> found) {
+        int count = 0;
+        for(HashElement<K,V> he = list; he != null; he = he.next) {
+            count++;
+            if(he == found) break;
+        }
+        return count;
+    }
+
+    /**
+     * index번째 버킷의 원소 수 (HashMetrics의 버킷 길이 분포에 사용한다.)
+     * @param index
+     * @return
+     */
+    int chainLength(int index) {
+        return probeLength(harray[index], null);
+    }
+
+    private HashElement<K,V> find(HashElement<K,V> list, K key) {
+        for(HashElement<K, V> he = list; he != null; he = he.next) {
             if(((Comparable<K>)key).compareTo(he.key) ==0 ){
-                return he.value;
+                return he;
             }
         }
         return null;
     }
 
+    /**
+     * 테이블 전체를 한 번에 새로운 크기로 옮긴다.
+     * 점진적 리사이즈가 진행중이었다면 남은 버킷을 모두 옮긴 뒤 진행한다.
+     * HashElement를 새로 만들지 않고 기존 객체를 그대로 새 버킷으로 옮긴다.
+     * @param newSize
+     */
     public void resize(int newSize) {
-        //새로운 배열(사이즈업된 배열)
-        LinkedList<HashElement<K, V>>[] newArray = (LinkedList<HashElement<K,V>>[]) new LinkedList[newSize];
-        //새로운 배열 초기화
-        for (int i=0; i<newSize; i++)
-            newArray[i] = new LinkedList<>();
-
-        //기존 배열에 있던 요소들 새로운 배열에 추가
-        for (IteratorHelper<K> it = new IteratorHelper<K>(); it.hasNext(); ) {
-            K key = it.next();
-            System.out.println("key = " + key);
-            V val = getValue(key);
-            HashElement<K, V> he = new HashElement<>(key, val);
-            int hashval = (key.hashCode() & 0x7fffffff) % newSize;
-            newArray[hashval].add(he);
-        }
-
-        harray = newArray;
+        finishResize();
+        startResize(newSize);
+        finishResize();
+    }
+
+    /**
+     * 원소가 expectedElements개가 되어도 maxLoadFactor를 넘지 않도록 테이블을 미리 늘린다.
+     * 이미 충분히 크면 아무것도 하지 않는다.
+     * @param expectedElements
+     */
+    public void ensureCapacity(int expectedElements) {
+        int newSize = HashTable.tableSizeFor(expectedElements, maxLoadFactor);
+        if(newSize > tableSize)
+            resize(newSize);
+    }
+
+    /**
+     * map의 모든 원소를 추가한다.
+     * 먼저 ensureCapacity로 테이블을 한 번에 늘려서 추가하는 동안 리사이즈가 일어나지 않게 한다.
+     * add와 같이 이미 있는 key인지는 확인하지 않는다.
+     * @param map
+     */
+    public void addAll(Map<? extends K, ? extends V> map) {
+        ensureCapacity(numElements + map.size());
+        for(Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+            add(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * 점진적 리사이즈를 시작한다.
+     * 새 배열만 할당하고 원소는 옮기지 않는다. 이후 연산들이 rehash()를 통해 조금씩 옮긴다.
+     * @param newSize
+     */
+    void startResize(int newSize) {
+        oldArray = harray;
+        oldTableSize = tableSize;
+        rehashIndex = 0;
+        harray = (HashElement<K,V>[]) new HashElement[newSize];
         tableSize = newSize;
+        modCount++;
+        if(metrics != null) metrics.recordResize();
     }
 
-    class IteratorHelper<T> implements Iterator<T> {
-        T[] keys;
-        int position;
-        public IteratorHelper() {
-            keys = (T[])new Object[numElements];
-            int p=0;
-            for(int i=0; i<tableSize; i++) {
-                LinkedList<HashElement<K,V>> list = harray[i];
-                for(HashElement<K,V> h : list)
-                    keys[p++] = (T)h.key;
+    /**
+     * 기존 배열에서 최대 buckets개의 버킷을 새 배열로 옮긴다.
+     * 마지막 버킷까지 옮기면 기존 배열을 버리고 리사이즈를 끝낸다.
+     * 원소의 next만 바꿔서 새 버킷의 맨 앞으로 옮기므로 새로 만드는 객체가 없다.
+     * @param buckets
+     */
+    void rehash(int buckets) {
+        if(oldArray == null) return;
+        long start = metrics != null ? System.nanoTime() : 0;
+        int end = Math.min(oldTableSize, rehashIndex + buckets);
+        for(; rehashIndex < end; rehashIndex++) {
+            HashElement<K,V> he = oldArray[rehashIndex];
+            while(he != null) {
+                HashElement<K,V> next = he.next;
+                int index = indexFor(he.key, tableSize);
+                he.next = harray[index];
+                harray[index] = he;
+                he = next;
             }
-            position=0;
+            oldArray[rehashIndex] = null;
+        }
+        if(rehashIndex == oldTableSize) {
+            oldArray = null;
+            oldTableSize = 0;
+            rehashIndex = 0;
         }
+        if(metrics != null) metrics.recordPause(System.nanoTime() - start);
+    }
+
+    /**
+     * 진행중인 점진적 리사이즈를 즉시 끝낸다.
+     */
+    public void finishResize() {
+        if(oldArray != null)
+            rehash(oldTableSize);
+    }
+
+    /**
+     * 버킷 범위로 나누는 Spliterator
+     * 원소를 복사하지 않고 버킷 배열을 직접 따라간다.
+     * 리사이즈가 진행중이면 원소가 두 배열에 나뉘어 있으므로 먼저 리사이즈를 끝낸다.
+     * @return
+     */
+    public Spliterator<Map.Entry<K, V>> spliterator() {
+        finishResize();
+        return new BucketSpliterator(0, tableSize, numElements, true);
+    }
+
+    public Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 여러 스레드에서 버킷 범위별로 나눠 처리하는 스트림
+     * 처리하는 동안 Hash를 변경하면 안 된다.
+     * @return
+     */
+    public Stream<Map.Entry<K, V>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * harray의 index ~ fence-1번째 버킷을 순회하는 Spliterator
+     * trySplit은 남은 버킷 범위의 앞쪽 절반을 새 Spliterator로 넘긴다.
+     * 버킷마다 원소 수가 다르므로 나눈 뒤의 크기는 버킷 수의 비율로 추정한 값이다.(처음 만든 Spliterator만 SIZED)
+     */
+    class BucketSpliterator implements Spliterator<Map.Entry<K, V>> {
+        int index;
+        final int fence;
+        long estimate;
+        boolean sized;
+        // 다음에 꺼낼 원소 (없으면 다음 버킷으로 넘어간다.)
+        HashElement<K,V> current;
+        final int expectedModCount = modCount;
+
+        BucketSpliterator(int index, int fence, long estimate, boolean sized) {
+            this.index = index;
+            this.fence = fence;
+            this.estimate = estimate;
+            this.sized = sized;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            if(modCount != expectedModCount) throw new ConcurrentModificationException();
+            while(current == null) {
+                if(index >= fence) return false;
+                current = harray[index++];
+            }
+            HashElement<K,V> he = current;
+            current = he.next;
+            action.accept(he);
+            return true;
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            int mid = (index + fence) >>> 1;
+            //이미 읽기 시작한 버킷이 있으면 나누지 않는다.
+            if(mid <= index || current != null) return null;
+            long prefixEstimate = estimate * (mid - index) / (fence - index);
+            BucketSpliterator prefix = new BucketSpliterator(index, mid, prefixEstimate, false);
+            estimate -= prefixEstimate;
+            index = mid;
+            sized = false;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return sized ? SIZED | NONNULL : NONNULL;
+        }
+    }
+
+    /**
+     * key를 순서 없이 하나씩 꺼내는 반복자
+     * @return
+     */
+    public Iterator<K> keyIterator() {
+        return new HashIterator<K>() {
+            @Override
+            public K next() {
+                return nextElement().key;
+            }
+        };
+    }
+
+    public Iterator<V> valueIterator() {
+        return new HashIterator<V>() {
+            @Override
+            public V next() {
+                return nextElement().value;
+            }
+        };
+    }
+
+    public Iterator<Map.Entry<K, V>> entryIterator() {
+        return new HashIterator<Map.Entry<K, V>>() {
+            @Override
+            public Map.Entry<K, V> next() {
+                return nextElement();
+            }
+        };
+    }
+
+    /**
+     * for-each문에서 사용할 수 있는 key, value, entry 뷰
+     * @return
+     */
+    public Iterable<K> keys() {
+        return this::keyIterator;
+    }
+
+    public Iterable<V> values() {
+        return this::valueIterator;
+    }
+
+    public Iterable<Map.Entry<K, V>> entries() {
+        return this::entryIterator;
+    }
+
+    /**
+     * 버킷 배열과 체인을 직접 따라가는 반복자
+     * key를 미리 배열에 복사하지 않고, 다음에 꺼낼 원소(next)와 그 원소가 있는 버킷의 번호(nextIndex)만 기억한다.
+     * 원소의 next를 따라가므로 버킷 길이와 상관없이 원소 하나에 O(1)이고, 반복자 객체 외에는 아무것도 만들지 않는다.
+     *
+     * remove()는 마지막으로 꺼낸 원소(lastReturned)를 그 앞 원소(lastPrev)의 next를 바꿔서 체인에서 떼어낸다.
+     * 앞 원소를 기억하므로 버킷을 처음부터 다시 찾지 않고 O(1)에 삭제한다.
+     *
+     * 리사이즈가 진행중이면 원소가 두 배열에 나뉘어 있으므로 반복자를 만들 때 먼저 리사이즈를 끝낸다.
+     * 반복하는 동안 반복자의 remove()가 아닌 방법으로 Hash가 바뀌면 ConcurrentModificationException을 던진다.(fail-fast)
+     * @param <T>
+     */
+    abstract class HashIterator<T> implements Iterator<T> {
+        // 다음에 꺼낼 원소와 그 버킷의 번호, 같은 버킷에서 next 바로 앞의 원소(버킷의 첫 원소이면 null)
+        HashElement<K,V> next, prev;
+        int nextIndex;
+        // 마지막으로 꺼낸 원소와 그 버킷의 번호, 바로 앞의 원소 (remove()로 삭제할 원소, 없으면 null)
+        HashElement<K,V> lastReturned, lastPrev;
+        int lastIndex;
+        int expectedModCount;
+
+        HashIterator() {
+            finishResize();
+            expectedModCount = modCount;
+            nextIndex = -1;
+            advanceBucket();
+        }
+
+        /**
+         * nextIndex 다음의 비어있지 않은 버킷으로 넘어간다.
+         */
+        private void advanceBucket() {
+            prev = null;
+            next = null;
+            while(next == null && nextIndex + 1 < tableSize)
+                next = harray[++nextIndex];
+        }
+
         @Override
         public boolean hasNext() {
-            return position<keys.length;
+            return next != null;
+        }
+
+        HashElement<K,V> nextElement() {
+            if(modCount != expectedModCount) throw new ConcurrentModificationException();
+            if(next == null) throw new NoSuchElementException();
+            lastReturned = next;
+            lastPrev = prev;
+            lastIndex = nextIndex;
+            prev = next;
+            next = next.next;
+            if(next == null) advanceBucket();
+            return lastReturned;
         }
 
+        /**
+         * 마지막으로 꺼낸 원소를 삭제한다.
+         */
         @Override
-        public T next() {
-            if(!hasNext()) return null;
-            return keys[position++];
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            if(modCount != expectedModCount) throw new ConcurrentModificationException();
+            if(lastPrev == null) harray[lastIndex] = lastReturned.next;
+            else lastPrev.next = lastReturned.next;
+            //다음 원소가 같은 버킷에 있으면 그 앞 원소는 이제 lastPrev이다.
+            if(prev == lastReturned) prev = lastPrev;
+            lastReturned.next = null;
+            lastReturned = null;
+            numElements--;
+            modCount++;
+            expectedModCount = modCount;
         }
     }
+
+    /**
+     * 모든 원소를 스냅샷 파일로 저장한다.
+     * 파일의 구조는 다음과 같다.
+     *   [헤더][원소 레코드들][해시 인덱스]
+     *   원소 레코드 - [키의 해시 int][키 길이 int][키][값 길이 int (null이면 -1)][값]
+     *   해시 인덱스 - 레코드의 파일 위치(long)를 저장한 slotCount개의 칸 (0은 빈 칸, 선형 탐사)
+     * 해시값은 hashCode()가 아니라 인코딩된 키 바이트의 murmur3이므로 다른 프로세스에서도 같은 값이 나온다.
+     * 해시 인덱스는 MappedHashSnapshot이 파일을 메모리에 매핑한 채로 키를 찾을 때 사용한다.
+     * @param path
+     * @param keyCodec
+     * @param valueCodec
+     * @throws IOException
+     */
+    public void writeSnapshot(Path path, Codec<? super K> keyCodec, Codec<? super V> valueCodec) throws IOException {
+        finishResize();
+        // 적재율 0.5로 두어 매핑된 파일에서 탐사하는 칸 수를 줄인다.
+        int slotCount = HashTable.tableSizeFor(numElements, 0.5);
+        if(numElements >= slotCount) throw new IllegalStateException("too many elements for a snapshot: " + numElements);
+        long[] slots = new long[slotCount];
+        int mask = slotCount - 1;
+        try(SnapshotWriter writer = new SnapshotWriter(path)) {
+            for(int i=0; i<tableSize; i++) {
+                for(HashElement<K,V> he = harray[i]; he != null; he = he.next) {
+                    byte[] key = keyCodec.encode(he.key);
+                    int hash = HashTable.murmur3(key, 0);
+                    int slot = hash & mask;
+                    while(slots[slot] != 0)
+                        slot = (slot + 1) & mask;
+                    slots[slot] = writer.position();
+                    writer.writeInt(hash);
+                    writer.writeInt(key.length);
+                    writer.writeBytes(key);
+                    if(he.value == null) {
+                        writer.writeInt(-1);
+                    } else {
+                        byte[] value = valueCodec.encode(he.value);
+                        writer.writeInt(value.length);
+                        writer.writeBytes(value);
+                    }
+                }
+            }
+            long indexOffset = writer.position();
+            for(long offset : slots)
+                writer.writeLong(offset);
+            writer.finish(SnapshotHeader.KIND_HASH, numElements, indexOffset, slotCount);
+        }
+    }
+
+    public static <K, V> Hash<K, V> loadSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        return loadSnapshot(path, keyCodec, valueCodec, HashTable.defaultHash());
+    }
+
+    /**
+     * writeSnapshot으로 저장한 파일에서 Hash를 다시 만든다.
+     * 원소 수를 헤더에서 알 수 있으므로 처음부터 충분한 크기의 테이블을 만들어서 add하는 동안 리사이즈가 일어나지 않는다.
+     * 다 읽은 뒤 CRC32를 확인하고, 다르면 만든 Hash를 버리고 예외를 던진다.
+     * @param path
+     * @param keyCodec
+     * @param valueCodec
+     * @param hashFunction
+     * @return
+     * @throws IOException
+     */
+    public static <K, V> Hash<K, V> loadSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec,
+                                                 HashFunction<? super K> hashFunction) throws IOException {
+        try(SnapshotReader reader = new SnapshotReader(path, SnapshotHeader.KIND_HASH)) {
+            long count = reader.header.count;
+            //레코드 하나는 최소 12바이트이다.
+            if(count > Integer.MAX_VALUE || count * 12 > reader.header.payloadLength)
+                throw new CorruptSnapshotException("invalid element count: " + count);
+            Hash<K, V> hash = new Hash<>(HashTable.tableSizeFor((int)count, 0.75), hashFunction);
+            for(long i=0; i<count; i++) {
+                reader.readInt();
+                K key = keyCodec.decode(reader.readBytes(reader.readInt()));
+                int valueLength = reader.readInt();
+                V value = valueLength < 0 ? null : valueCodec.decode(reader.readBytes(valueLength));
+                hash.add(key, value);
+            }
+            reader.verify();
+            return hash;
+        }
+    }
+
+    /**
+     * 적재율 = 원소 수 / 테이블 크기
+     * @return
+     */
     public double loadFactor() {
-        return numElements/tableSize;
+        return (double)numElements/tableSize;
+    }
+
+    /**
+     * 연산 수, 탐사 길이, 충돌률, 리사이즈 시간 등의 지표를 기록하기 시작한다.
+     * 이미 켜져 있으면 기존 지표를 그대로 반환한다.
+     * @return
+     */
+    public HashMetrics enableMetrics() {
+        if(metrics == null)
+            metrics = new HashMetrics(this);
+        return metrics;
+    }
+
+    /**
+     * 지표를 켜고 JMX MBean(datastructures:type=Hash,name=이름)으로 등록한다.
+     * @param name
+     * @return
+     */
+    public HashMetrics enableMetrics(String name) {
+        HashMetrics metrics = enableMetrics();
+        metrics.unregister();
+        return metrics.register(name);
+    }
+
+    /**
+     * 지표 기록을 멈추고 등록된 MBean을 해제한다.
+     */
+    public void disableMetrics() {
+        if(metrics == null) return;
+        metrics.unregister();
+        metrics = null;
+    }
+
+    /**
+     * @return - 지표를 켜지 않았으면 null
+     */
+    public HashMetrics metrics() {
+        return metrics;
     }
 
     public static void main(String[] args) {
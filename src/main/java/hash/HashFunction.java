@@ -0,0 +1,12 @@
+package hash;
+
+/**
+ * key를 int 해시값으로 바꾸는 함수
+ * Hash, ConcurrentHash에 넘겨서 key.hashCode() 대신 사용할 수 있다.
+ * 구현체는 HashTable의 static 메서드들로 만들 수 있다.
+ * @param <K>
+ */
+@FunctionalInterface
+public interface HashFunction<K> {
+    public int hash(K key);
+}
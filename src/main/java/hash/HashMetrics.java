@@ -0,0 +1,279 @@
+package hash;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hash의 동작을 관찰하기 위한 지표
+ * Hash.enableMetrics()를 호출한 경우에만 만들어진다. 만들지 않으면 Hash는 metrics 필드가 null인지만 확인하므로 비용이 거의 없다.
+ *
+ * 연산이 일어날 때 기록하는 값
+ * 1. add, getValue, remove의 호출 수와 getValue의 hit/miss 수
+ * 2. 탐사 길이(probe length) - getValue가 key를 찾을 때까지 버킷에서 비교한 원소 수 (없으면 버킷의 길이)
+ * 3. 충돌 - add할 때 버킷에 이미 원소가 있었던 경우
+ * 4. 리사이즈 횟수와 멈춘 시간(pause) - 한 번에 리사이즈하면 전체 시간, 점진적 리사이즈면 연산 한 번에서 버킷을 옮긴 시간
+ *    멈춘 시간은 2의 거듭제곱 구간으로 나눈 히스토그램에 센다.(i번째 칸은 2^(i-1) 이상 2^i 미만 나노초)
+ *
+ * 버킷 길이 분포와 최대 체인 길이는 조회할 때 버킷 배열을 훑어서 계산한다.(O(tableSize))
+ * 카운터는 LongAdder이므로 JMX 스레드가 읽는 동안 Hash를 사용하는 스레드가 기다리지 않는다.
+ */
+public class HashMetrics implements HashMetricsMXBean {
+    // 버킷 길이 분포에서 마지막 칸은 이 길이 이상인 버킷을 모두 센다.
+    static final int MAX_BUCKET_LENGTH = 16;
+
+    final Hash<?, ?> hash;
+    final LongAdder adds = new LongAdder();
+    final LongAdder gets = new LongAdder();
+    final LongAdder removes = new LongAdder();
+    final LongAdder hits = new LongAdder();
+    final LongAdder probes = new LongAdder();
+    final LongAdder collisions = new LongAdder();
+    final LongAdder resizes = new LongAdder();
+    final AtomicLongArray pauseHistogram = new AtomicLongArray(64);
+    final LongAccumulator maxPause = new LongAccumulator(Math::max, 0);
+    volatile long startNanos = System.nanoTime();
+    ObjectName objectName;
+
+    HashMetrics(Hash<?, ?> hash) {
+        this.hash = hash;
+    }
+
+    void recordAdd(boolean collision) {
+        adds.increment();
+        if(collision) collisions.increment();
+    }
+
+    void recordGet(int probeLength, boolean hit) {
+        gets.increment();
+        probes.add(probeLength);
+        if(hit) hits.increment();
+    }
+
+    void recordRemove() {
+        removes.increment();
+    }
+
+    void recordResize() {
+        resizes.increment();
+    }
+
+    void recordPause(long nanos) {
+        pauseHistogram.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(0, nanos)));
+        maxPause.accumulate(nanos);
+    }
+
+    /**
+     * JMX MBean으로 등록한다.
+     * @param name - ObjectName의 name 속성
+     * @return
+     */
+    public HashMetrics register(String name) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("datastructures:type=Hash,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            this.objectName = objectName;
+        } catch(InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException("metrics already registered: " + name, e);
+        } catch(JMException e) {
+            throw new IllegalStateException(e);
+        }
+        return this;
+    }
+
+    /**
+     * 등록한 MBean을 해제한다. 등록하지 않았으면 아무것도 하지 않는다.
+     */
+    public void unregister() {
+        if(objectName == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch(JMException e) {
+            //이미 해제된 경우
+        }
+        objectName = null;
+    }
+
+    private double perSecond(long count) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : count / seconds;
+    }
+
+    public long getAddCount() {
+        return adds.sum();
+    }
+
+    public long getGetCount() {
+        return gets.sum();
+    }
+
+    public long getRemoveCount() {
+        return removes.sum();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return gets.sum() - hits.sum();
+    }
+
+    /**
+     * 측정을 시작한(또는 reset한) 뒤의 평균 초당 add 수
+     * @return
+     */
+    public double getAddsPerSecond() {
+        return perSecond(adds.sum());
+    }
+
+    public double getGetsPerSecond() {
+        return perSecond(gets.sum());
+    }
+
+    public double getRemovesPerSecond() {
+        return perSecond(removes.sum());
+    }
+
+    /**
+     * getValue 한 번에 버킷에서 비교한 평균 원소 수
+     * 해시 함수가 고르게 퍼지면 1 근처이고, 특정 버킷에 몰리면 커진다.
+     * @return
+     */
+    public double getAverageProbeLength() {
+        long count = gets.sum();
+        return count == 0 ? 0 : (double)probes.sum() / count;
+    }
+
+    /**
+     * add 중 버킷에 이미 원소가 있었던 비율
+     * @return
+     */
+    public double getCollisionRate() {
+        long count = adds.sum();
+        return count == 0 ? 0 : (double)collisions.sum() / count;
+    }
+
+    public long getResizeCount() {
+        return resizes.sum();
+    }
+
+    public long getMaxResizePauseNanos() {
+        return maxPause.get();
+    }
+
+    public long[] getResizePauseHistogram() {
+        long[] counts = new long[pauseHistogram.length()];
+        for(int i=0; i<counts.length; i++)
+            counts[i] = pauseHistogram.get(i);
+        return counts;
+    }
+
+    public int getSize() {
+        return hash.numElements;
+    }
+
+    public int getTableSize() {
+        return hash.tableSize;
+    }
+
+    public double getLoadFactor() {
+        return hash.loadFactor();
+    }
+
+    public int getMaxChainLength() {
+        long[] histogram = getBucketLengthHistogram();
+        int max = 0;
+        for(int i=0; i<histogram.length; i++)
+            if(histogram[i] > 0) max = i;
+        if(max < MAX_BUCKET_LENGTH) return max;
+        //마지막 칸은 여러 길이를 합친 것이므로 실제 최대 길이를 다시 구한다.
+        for(int i=0; i<hash.tableSize; i++)
+            max = Math.max(max, hash.chainLength(i));
+        return max;
+    }
+
+    /**
+     * i번째 칸은 길이가 i인 버킷의 수 (마지막 칸은 MAX_BUCKET_LENGTH 이상)
+     * 리사이즈 중에는 새 배열의 버킷만 센다.
+     * @return
+     */
+    public long[] getBucketLengthHistogram() {
+        long[] histogram = new long[MAX_BUCKET_LENGTH + 1];
+        for(int i=0; i<hash.tableSize; i++)
+            histogram[Math.min(hash.chainLength(i), MAX_BUCKET_LENGTH)]++;
+        return histogram;
+    }
+
+    /**
+     * 모든 카운터를 0으로 만들고 초당 연산 수의 측정을 다시 시작한다.
+     */
+    public void reset() {
+        adds.reset();
+        gets.reset();
+        removes.reset();
+        hits.reset();
+        probes.reset();
+        collisions.reset();
+        resizes.reset();
+        for(int i=0; i<pauseHistogram.length(); i++)
+            pauseHistogram.set(i, 0);
+        maxPause.reset();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * 지금의 지표를 한 번에 읽어서 값 객체로 만든다.
+     * @return
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * 어느 시점의 지표 값
+     * 두 Snapshot의 카운터 차이로 그 사이의 연산 수를 구할 수 있다.
+     */
+    public static final class Snapshot {
+        public final long nanoTime;
+        public final long addCount, getCount, removeCount, hitCount, missCount;
+        public final double averageProbeLength, collisionRate;
+        public final long resizeCount, maxResizePauseNanos;
+        public final long[] resizePauseHistogram;
+        public final int size, tableSize, maxChainLength;
+        public final double loadFactor;
+        public final long[] bucketLengthHistogram;
+
+        Snapshot(HashMetrics metrics) {
+            nanoTime = System.nanoTime();
+            addCount = metrics.getAddCount();
+            getCount = metrics.getGetCount();
+            removeCount = metrics.getRemoveCount();
+            hitCount = metrics.getHitCount();
+            missCount = getCount - hitCount;
+            averageProbeLength = metrics.getAverageProbeLength();
+            collisionRate = metrics.getCollisionRate();
+            resizeCount = metrics.getResizeCount();
+            maxResizePauseNanos = metrics.getMaxResizePauseNanos();
+            resizePauseHistogram = metrics.getResizePauseHistogram();
+            size = metrics.getSize();
+            tableSize = metrics.getTableSize();
+            loadFactor = metrics.getLoadFactor();
+            bucketLengthHistogram = metrics.getBucketLengthHistogram();
+            maxChainLength = metrics.getMaxChainLength();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d table=%d load=%.3f adds=%d gets=%d (hit %d, miss %d) removes=%d avgProbe=%.3f collisions=%.3f maxChain=%d resizes=%d maxPause=%dns",
+                    size, tableSize, loadFactor, addCount, getCount, hitCount, missCount, removeCount,
+                    averageProbeLength, collisionRate, maxChainLength, resizeCount, maxResizePauseNanos);
+        }
+    }
+}
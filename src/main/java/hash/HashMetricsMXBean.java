@@ -0,0 +1,27 @@
+package hash;
+
+/**
+ * JMX로 공개하는 Hash의 지표
+ * jconsole, VisualVM 등에서 datastructures:type=Hash,name=이름 으로 볼 수 있다.
+ */
+public interface HashMetricsMXBean {
+    public long getAddCount();
+    public long getGetCount();
+    public long getRemoveCount();
+    public long getHitCount();
+    public long getMissCount();
+    public double getAddsPerSecond();
+    public double getGetsPerSecond();
+    public double getRemovesPerSecond();
+    public double getAverageProbeLength();
+    public double getCollisionRate();
+    public long getResizeCount();
+    public long getMaxResizePauseNanos();
+    public long[] getResizePauseHistogram();
+    public int getSize();
+    public int getTableSize();
+    public double getLoadFactor();
+    public int getMaxChainLength();
+    public long[] getBucketLengthHistogram();
+    public void reset();
+}
@@ -1,6 +1,17 @@
 package hash;
 
-public class HashTable {
+import java.security.SecureRandom;
+
+/**
+ * 해시 함수 모음
+ * 기본 hash(String)은 31을 곱해가는 다항식 해시(String.hashCode()와 동일)이다.
+ * 다항식 해시는 "key1", "key2"처럼 끝만 다른 키들의 해시값이 연속된 값이 되어서 버킷이 뭉치기 쉽다.
+ * 그래서 비트를 골고루 섞어주는 murmur3, xxHash 계열의 함수와 seed를 받는 버전을 함께 제공한다.
+ * seed를 외부에서 알 수 없게 정하면 일부러 충돌하는 키를 만들어 넣는 공격(hash flooding)을 막을 수 있다.
+ *
+ * HashFunction 객체가 필요하면 defaultHash(), polynomial(), murmur3String() 등의 메서드를 사용한다.
+ */
+public class HashTable implements HashFunction<String> {
     public int hash(String s) {
         int g=31;
         int hash = 0;
@@ -11,4 +22,306 @@ public class HashTable {
         //hashval %= tableSize;
         return hash;
     }
+
+    /**
+     * int 키를 섞어주는 메서드 (murmur3의 finalizer)
+     * 연속된 정수 키도 비트가 골고루 퍼지게 만들어서 2의 거듭제곱 크기의 테이블에서 & mask로 인덱스를 구해도 뭉치지 않는다.
+     * @param h
+     * @return
+     */
+    public static int mix32(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * long 키를 섞어주는 메서드 (murmur3의 64비트 finalizer)
+     * @param h
+     * @return
+     */
+    public static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * long 키를 섞은 뒤 int로 접어서 배열 인덱스 계산에 쓸 수 있게 한다.
+     * @param h
+     * @return
+     */
+    public static int mix64to32(long h) {
+        h = mix64(h);
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /**
+     * 요청한 크기 이상인 가장 작은 2의 거듭제곱을 구한다.
+     * 2의 거듭제곱 크기를 쓰면 나머지 연산(%) 대신 & (size-1)로 인덱스를 구할 수 있다.
+     * @param n
+     * @return
+     */
+    public static int nextPowerOfTwo(int n) {
+        if(n <= 2) return 2;
+        if(n > (1 << 30)) return 1 << 30;
+        return Integer.highestOneBit(n - 1) << 1;
+    }
+
+    /**
+     * 원소의 개수와 최대 적재율로 필요한 테이블 크기(2의 거듭제곱)를 구한다.
+     * @param expectedElements
+     * @param maxLoadFactor
+     * @return
+     */
+    public static int tableSizeFor(int expectedElements, double maxLoadFactor) {
+        long size = (long)Math.ceil(expectedElements / maxLoadFactor);
+        return nextPowerOfTwo((int)Math.min(size, 1 << 30));
+    }
+
+    private static final int C1 = 0xcc9e2d51;
+    private static final int C2 = 0x1b873593;
+
+    private static int mixK1(int k1) {
+        k1 *= C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static int mixH1(int h1, int k1) {
+        h1 ^= k1;
+        h1 = Integer.rotateLeft(h1, 13);
+        h1 = h1 * 5 + 0xe6546b64;
+        return h1;
+    }
+
+    private static int fmix(int h1, int length) {
+        h1 ^= length;
+        return mix32(h1);
+    }
+
+    /**
+     * murmur3 (x86, 32비트) 해시
+     * 4바이트씩 읽어서 곱셈과 회전으로 섞고, 마지막에 finalizer로 한 번 더 섞는다.
+     * @param data
+     * @param seed
+     * @return
+     */
+    //마지막 1~3바이트를 처리하는 switch는 원래 알고리즘대로 case 3 -> 2 -> 1로 일부러 이어서 실행한다.
+    @SuppressWarnings("fallthrough")
+    public static int murmur3(byte[] data, int seed) {
+        int h1 = seed;
+        int length = data.length;
+        int blocks = length >>> 2;
+        for(int i=0; i<blocks; i++) {
+            int p = i << 2;
+            int k1 = (data[p] & 0xff) | ((data[p+1] & 0xff) << 8) | ((data[p+2] & 0xff) << 16) | (data[p+3] << 24);
+            h1 = mixH1(h1, mixK1(k1));
+        }
+        int tail = blocks << 2;
+        int k1 = 0;
+        switch(length & 3) {
+            case 3: k1 ^= (data[tail+2] & 0xff) << 16;
+            case 2: k1 ^= (data[tail+1] & 0xff) << 8;
+            case 1: k1 ^= (data[tail] & 0xff);
+                h1 ^= mixK1(k1);
+        }
+        return fmix(h1, length);
+    }
+
+    /**
+     * String의 murmur3 해시
+     * 바이트 배열로 인코딩하지 않고 char 두 개(2바이트씩)를 하나의 4바이트 블록으로 보고 섞는다.
+     * @param s
+     * @param seed
+     * @return
+     */
+    public static int murmur3(String s, int seed) {
+        int h1 = seed;
+        int length = s.length();
+        for(int i=1; i<length; i+=2) {
+            int k1 = s.charAt(i-1) | (s.charAt(i) << 16);
+            h1 = mixH1(h1, mixK1(k1));
+        }
+        if((length & 1) == 1)
+            h1 ^= mixK1(s.charAt(length-1));
+        return fmix(h1, 2 * length);
+    }
+
+    public static int murmur3(int value, int seed) {
+        return fmix(mixH1(seed, mixK1(value)), 4);
+    }
+
+    public static int murmur3(long value, int seed) {
+        int h1 = mixH1(seed, mixK1((int)value));
+        h1 = mixH1(h1, mixK1((int)(value >>> 32)));
+        return fmix(h1, 8);
+    }
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private static long readLong(byte[] b, int p) {
+        return (b[p] & 0xffL) | ((b[p+1] & 0xffL) << 8) | ((b[p+2] & 0xffL) << 16) | ((b[p+3] & 0xffL) << 24)
+                | ((b[p+4] & 0xffL) << 32) | ((b[p+5] & 0xffL) << 40) | ((b[p+6] & 0xffL) << 48) | ((b[p+7] & 0xffL) << 56);
+    }
+
+    private static long readInt(byte[] b, int p) {
+        return (b[p] & 0xffL) | ((b[p+1] & 0xffL) << 8) | ((b[p+2] & 0xffL) << 16) | ((b[p+3] & 0xffL) << 24);
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * P1 + P4;
+    }
+
+    /**
+     * xxHash64 해시
+     * 64비트 해시값이 필요할 때(HyperLogLog처럼 해시값의 비트를 여러 용도로 나눠 쓸 때) 사용한다.
+     * 32바이트씩 네 개의 누적값에 나눠서 섞으므로 긴 키에서 murmur3보다 빠르다.
+     * @param data
+     * @param seed
+     * @return
+     */
+    public static long xxHash64(byte[] data, long seed) {
+        int length = data.length;
+        int p = 0;
+        long h;
+        if(length >= 32) {
+            long v1 = seed + P1 + P2, v2 = seed + P2, v3 = seed, v4 = seed - P1;
+            int limit = length - 32;
+            do {
+                v1 = round(v1, readLong(data, p));
+                v2 = round(v2, readLong(data, p+8));
+                v3 = round(v3, readLong(data, p+16));
+                v4 = round(v4, readLong(data, p+24));
+                p += 32;
+            } while(p <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += length;
+        for(; p + 8 <= length; p += 8) {
+            h ^= round(0, readLong(data, p));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if(p + 4 <= length) {
+            h ^= readInt(data, p) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            p += 4;
+        }
+        for(; p < length; p++) {
+            h ^= (data[p] & 0xffL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /**
+     * long 값의 64비트 해시
+     * seed를 섞은 뒤 murmur3의 64비트 finalizer를 적용한다.
+     * @param value
+     * @param seed
+     * @return
+     */
+    public static long hash64(long value, long seed) {
+        return mix64(value ^ mix64(seed + P5));
+    }
+
+    /**
+     * 외부에서 예측할 수 없는 seed를 만든다.
+     * @return
+     */
+    public static int randomSeed() {
+        return new SecureRandom().nextInt();
+    }
+
+    /**
+     * key.hashCode()를 그대로 사용하는 해시 함수 (Hash의 기본값)
+     * @return
+     */
+    public static HashFunction<Object> defaultHash() {
+        return Object::hashCode;
+    }
+
+    /**
+     * key.hashCode()를 murmur3의 finalizer로 한 번 더 섞는 해시 함수
+     * 연속된 정수 키처럼 hashCode()의 하위 비트가 치우친 경우에 효과가 있다.
+     * hashCode()가 같은 키들은 여전히 충돌하므로 hash flooding은 막지 못한다.
+     * @return
+     */
+    public static HashFunction<Object> spread() {
+        return key -> mix32(key.hashCode());
+    }
+
+    /**
+     * 31을 곱해가는 다항식 해시 (기존 hash(String))
+     * @return
+     */
+    public static HashFunction<String> polynomial() {
+        return new HashTable();
+    }
+
+    public static HashFunction<String> murmur3String(int seed) {
+        return s -> murmur3(s, seed);
+    }
+
+    public static HashFunction<byte[]> murmur3Bytes(int seed) {
+        return b -> murmur3(b, seed);
+    }
+
+    public static HashFunction<Integer> murmur3Int(int seed) {
+        return i -> murmur3(i.intValue(), seed);
+    }
+
+    public static HashFunction<Long> murmur3Long(int seed) {
+        return l -> murmur3(l.longValue(), seed);
+    }
+
+    /**
+     * xxHash64의 결과를 int로 접은 해시 함수
+     * @param seed
+     * @return
+     */
+    public static HashFunction<byte[]> xxHashBytes(long seed) {
+        return b -> {
+            long h = xxHash64(b, seed);
+            return (int)(h ^ (h >>> 32));
+        };
+    }
+
+    /**
+     * 무작위 seed를 사용하는 String 해시 함수
+     * 프로세스마다 seed가 달라지므로 외부에서 충돌하는 키를 미리 계산할 수 없다.
+     * @return
+     */
+    public static HashFunction<String> seededString() {
+        return murmur3String(randomSeed());
+    }
 }
@@ -0,0 +1,216 @@
+package hash;
+
+import java.util.Arrays;
+
+/**
+ * long 키 -> long 값을 저장하는 개방 주소법(Open Addressing) 해시 테이블
+ * Hash처럼 원소마다 HashElement를 만들지 않고 keys, values 두 개의 배열만 사용한다.
+ * 따라서 원소를 추가할 때 객체 생성(HashElement, 키 박싱)이 없다.
+ *
+ * 충돌은 선형 탐사(Linear Probing)로 해결한다. 인덱스가 겹치면 바로 다음 칸을 확인한다.
+ * 테이블 크기는 항상 2의 거듭제곱이므로 % 연산 대신 & mask로 인덱스를 구한다.
+ * 값도 long 배열에 그대로 저장하므로 박싱이 전혀 없다. 없는 키를 조회하면 생성자에서 지정한 missingValue를 반환한다.
+ * 빈 칸은 키 0으로 표시하고, 실제 키 0은 별도의 필드(hasFreeKey, freeValue)에 저장한다.
+ */
+public class LongLongHash {
+
+    // 빈 칸을 나타내는 키
+    private static final long FREE_KEY = 0;
+    // 테이블의 최대 크기 (HashTable.nextPowerOfTwo의 상한)
+    static final int MAX_TABLE_SIZE = 1 << 30;
+
+    long[] keys;
+    long[] values;
+    // 키가 없을 때 반환하는 값
+    long missingValue;
+
+    // 키 0은 빈 칸 표시와 겹치므로 따로 저장한다.
+    boolean hasFreeKey;
+    long freeValue;
+
+    // 객체의 갯수 및 Array 크기
+    int numElements, tableSize;
+    int mask;
+    // numElements가 threshold를 넘으면 테이블을 2배로 늘린다.
+    int threshold;
+    double maxLoadFactor;
+
+    public LongLongHash(int tableSize) {
+        this(tableSize, 0.75, 0);
+    }
+
+    /**
+     * 생성자
+     * tableSize는 2의 거듭제곱으로 올림한다.
+     * 개방 주소법은 적재율이 1에 가까워질수록 탐사 길이가 급격히 늘어나므로 maxLoadFactor는 0.5~0.8 정도를 쓴다.
+     * @param tableSize
+     * @param maxLoadFactor
+     * @param missingValue - getValue, remove에서 키가 없을 때 반환할 값
+     */
+    public LongLongHash(int tableSize, double maxLoadFactor, long missingValue) {
+        if(maxLoadFactor <= 0 || maxLoadFactor >= 1)
+            throw new IllegalArgumentException("maxLoadFactor must be in (0, 1): " + maxLoadFactor);
+        this.maxLoadFactor = maxLoadFactor;
+        this.missingValue = missingValue;
+        allocate(HashTable.nextPowerOfTwo(tableSize));
+    }
+
+    private void allocate(int size) {
+        keys = new long[size];
+        values = new long[size];
+        tableSize = size;
+        mask = size - 1;
+        threshold = (int)(size * maxLoadFactor);
+    }
+
+    private int indexFor(long key) {
+        return HashTable.mix64to32(key) & mask;
+    }
+
+    /**
+     * key, value를 추가하는 메서드
+     * 이미 같은 key가 있으면 value만 바꾼다.
+     * 시간복잡도: 평균 O(1)
+     * @param key
+     * @param value
+     * @return - 새로운 key가 추가되었으면 true, 기존 value를 바꿨으면 false
+     */
+    public boolean add(long key, long value) {
+        if(key == FREE_KEY) {
+            boolean added = !hasFreeKey;
+            if(added) numElements++;
+            hasFreeKey = true;
+            freeValue = value;
+            return added;
+        }
+        int slot = indexFor(key);
+        while(keys[slot] != FREE_KEY) {
+            if(keys[slot] == key) {
+                values[slot] = value;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // 최대 크기에서 더 늘릴 수 없을 때도 탐사가 끝나도록 빈 칸을 하나는 남겨둔다.
+        if(tableSize == MAX_TABLE_SIZE && slotsInUse() == tableSize - 1) throw new IllegalStateException("table is full");
+        keys[slot] = key;
+        values[slot] = value;
+        if(++numElements > threshold && tableSize < MAX_TABLE_SIZE)
+            resize(tableSize * 2);
+        return true;
+    }
+
+    public long getValue(long key) {
+        if(key == FREE_KEY) return hasFreeKey ? freeValue : missingValue;
+        int slot = indexFor(key);
+        while(keys[slot] != FREE_KEY) {
+            if(keys[slot] == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public boolean containsKey(long key) {
+        if(key == FREE_KEY) return hasFreeKey;
+        int slot = indexFor(key);
+        while(keys[slot] != FREE_KEY) {
+            if(keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * key를 삭제하는 메서드
+     * 선형 탐사에서는 칸을 그냥 비우면 그 뒤에 이어지던 탐사가 끊긴다.
+     * 그래서 삭제표시(tombstone)를 남기는 대신 뒤쪽 원소들을 빈 칸으로 당겨온다.(backward shift)
+     * @param key
+     * @return - 삭제된 value, 없으면 missingValue
+     */
+    public long remove(long key) {
+        if(key == FREE_KEY) {
+            if(!hasFreeKey) return missingValue;
+            long tmp = freeValue;
+            hasFreeKey = false;
+            freeValue = 0;
+            numElements--;
+            return tmp;
+        }
+        int slot = indexFor(key);
+        while(keys[slot] != FREE_KEY) {
+            if(keys[slot] == key) {
+                long tmp = values[slot];
+                shiftKeys(slot);
+                numElements--;
+                return tmp;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * gap 위치가 비었을 때 뒤에 있는 원소 중 gap으로 옮겨도 되는 원소를 당겨온다.
+     * 원소의 원래 위치(ideal)에서 현재 위치(slot)까지의 구간에 gap이 포함되면 옮길 수 있다.
+     * @param gap
+     */
+    private void shiftKeys(int gap) {
+        int slot = gap;
+        while(true) {
+            slot = (slot + 1) & mask;
+            long k = keys[slot];
+            if(k == FREE_KEY) break;
+            int ideal = indexFor(k);
+            if(((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = k;
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = 0;
+    }
+
+    /**
+     * 새로운 크기의 배열을 만들고 기존 원소를 다시 넣는다.
+     * 원소 객체가 없으므로 배열 두 개만 새로 할당된다.
+     * 원소를 모두 넣고도 빈 칸이 남는 크기여야 한다. 그렇지 않으면 선형 탐사가 끝나지 않는다.
+     * @param newSize
+     */
+    public void resize(int newSize) {
+        if(newSize <= slotsInUse() || newSize > MAX_TABLE_SIZE)
+            throw new IllegalArgumentException("invalid table size: " + newSize);
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(HashTable.nextPowerOfTwo(newSize));
+        for(int i=0; i<oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if(k == FREE_KEY) continue;
+            int slot = indexFor(k);
+            while(keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    // 배열에 들어있는 원소 수 (따로 저장하는 키 0은 빼고 센다)
+    private int slotsInUse() {
+        return hasFreeKey ? numElements - 1 : numElements;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        Arrays.fill(values, 0);
+        hasFreeKey = false;
+        freeValue = 0;
+        numElements = 0;
+    }
+
+    public int size() {
+        return numElements;
+    }
+
+    public double loadFactor() {
+        return (double)numElements/tableSize;
+    }
+}
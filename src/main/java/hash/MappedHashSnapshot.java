@@ -0,0 +1,171 @@
+package hash;
+
+import snapshot.Codec;
+import snapshot.CorruptSnapshotException;
+import snapshot.SnapshotHeader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Hash.writeSnapshot으로 저장한 파일을 메모리에 매핑해서 읽기 전용 Hash처럼 사용하는 클래스
+ * 파일을 열 때 원소를 읽어서 객체로 만들지 않고, getValue를 호출할 때 파일의 해시 인덱스를 따라가 그 원소만 읽는다.
+ * 그래서 원소 수와 상관없이 바로 사용할 수 있고(운영체제가 필요한 페이지만 읽어온다.) 힙도 거의 사용하지 않는다.
+ *
+ * 하나의 MappedByteBuffer는 2GB를 넘을 수 없으므로 파일을 1GB씩 나눠서 매핑한다.
+ * 값이 매핑 경계에 걸쳐 있으면 두 버퍼에서 나눠 읽는다.
+ *
+ * 여러 스레드가 동시에 읽어도 안전하다.(버퍼의 위치를 바꾸지 않고 절대 위치로만 읽는다.)
+ * @param <K>
+ * @param <V>
+ */
+public class MappedHashSnapshot<K, V> implements Closeable {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    final Codec<K> keyCodec;
+    final Codec<V> valueCodec;
+    final SnapshotHeader header;
+    MappedByteBuffer[] chunks;
+    final long slotMask;
+
+    public MappedHashSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this(path, keyCodec, valueCodec, true);
+    }
+
+    /**
+     * 생성자
+     * @param path
+     * @param keyCodec
+     * @param valueCodec
+     * @param verify - true이면 파일 전체의 CRC32를 확인한다. 파일을 한 번 끝까지 읽게 되므로 신뢰할 수 있는 파일이면 false로 건너뛸 수 있다.
+     * @throws IOException
+     */
+    public MappedHashSnapshot(Path path, Codec<K> keyCodec, Codec<V> valueCodec, boolean verify) throws IOException {
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            header = SnapshotHeader.read(channel, SnapshotHeader.KIND_HASH);
+            if(Long.bitCount(header.slotCount) != 1 || header.indexOffset + header.slotCount * 8 != channel.size())
+                throw new CorruptSnapshotException("invalid hash index");
+            long size = channel.size();
+            chunks = new MappedByteBuffer[(int)((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for(int i=0; i<chunks.length; i++) {
+                long start = (long)i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start));
+            }
+        }
+        slotMask = header.slotCount - 1;
+        if(verify) verify();
+    }
+
+    private void verify() throws IOException {
+        CRC32 crc = new CRC32();
+        for(int i=0; i<chunks.length; i++) {
+            ByteBuffer buffer = chunks[i].duplicate();
+            if(i == 0) buffer.position(SnapshotHeader.SIZE);
+            crc.update(buffer);
+        }
+        if(crc.getValue() != header.crc) {
+            close();
+            throw new CorruptSnapshotException("checksum mismatch");
+        }
+    }
+
+    private byte get(long position) {
+        return chunks[(int)(position >>> CHUNK_SHIFT)].get((int)(position & (CHUNK_SIZE - 1)));
+    }
+
+    private int getInt(long position) {
+        int offset = (int)(position & (CHUNK_SIZE - 1));
+        if(offset <= CHUNK_SIZE - 4)
+            return chunks[(int)(position >>> CHUNK_SHIFT)].getInt(offset);
+        return ((get(position) & 0xff) << 24) | ((get(position + 1) & 0xff) << 16)
+                | ((get(position + 2) & 0xff) << 8) | (get(position + 3) & 0xff);
+    }
+
+    private long getLong(long position) {
+        int offset = (int)(position & (CHUNK_SIZE - 1));
+        if(offset <= CHUNK_SIZE - 8)
+            return chunks[(int)(position >>> CHUNK_SHIFT)].getLong(offset);
+        return ((long)getInt(position) << 32) | (getInt(position + 4) & 0xffffffffL);
+    }
+
+    private byte[] getBytes(long position, int length) {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while(copied < length) {
+            int offset = (int)(position & (CHUNK_SIZE - 1));
+            int n = (int)Math.min(length - copied, CHUNK_SIZE - offset);
+            chunks[(int)(position >>> CHUNK_SHIFT)].get(offset, bytes, copied, n);
+            copied += n;
+            position += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * key가 저장된 레코드의 파일 위치를 해시 인덱스에서 찾는다.
+     * 해시값과 길이가 같은 레코드만 키 바이트를 비교한다.
+     * @return - 레코드의 위치, 없으면 -1
+     */
+    private long find(K key) {
+        if(chunks == null) throw new IllegalStateException("closed");
+        byte[] bytes = keyCodec.encode(key);
+        int hash = HashTable.murmur3(bytes, 0);
+        long slot = hash & slotMask;
+        while(true) {
+            long record = getLong(header.indexOffset + slot * 8);
+            if(record == 0) return -1;
+            if(getInt(record) == hash && getInt(record + 4) == bytes.length && equals(record + 8, bytes))
+                return record;
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    private boolean equals(long position, byte[] bytes) {
+        for(int i=0; i<bytes.length; i++) {
+            if(get(position + i) != bytes[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param key
+     * @return - 없으면 null
+     */
+    public V getValue(K key) {
+        long record = find(key);
+        if(record < 0) return null;
+        long valuePosition = record + 8 + getInt(record + 4);
+        int length = getInt(valuePosition);
+        return length < 0 ? null : valueCodec.decode(getBytes(valuePosition + 4, length));
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    public long size() {
+        return header.count;
+    }
+
+    /**
+     * 매핑을 바로 해제한다. 해제한 뒤에 매핑된 메모리를 읽으면 프로세스가 죽을 수 있으므로
+     * 다른 스레드가 읽고 있지 않을 때만 호출해야 한다.
+     */
+    @Override
+    public void close() {
+        if(chunks == null) return;
+        MappedByteBuffer[] released = chunks;
+        chunks = null;
+        for(MappedByteBuffer buffer : released)
+            OffHeapHash.release(buffer);
+    }
+}
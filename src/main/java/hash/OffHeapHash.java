@@ -0,0 +1,314 @@
+package hash;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * 원소를 자바 힙이 아닌 direct ByteBuffer에 저장하는 해시 테이블 (byte[] 키 -> byte[] 값)
+ * Hash는 원소마다 HashElement 객체를 만들기 때문에 원소가 많을수록 GC가 살펴볼 객체가 늘어난다.
+ * OffHeapHash는 키와 값을 직렬화한 바이트를 힙 밖의 메모리에 복사해 두므로 원소 수와 상관없이 힙에는 버퍼 객체 몇 개만 남는다.
+ *
+ * 테이블은 같은 크기의 칸(slot)이 이어진 배열이다. 칸 하나의 구조는 다음과 같다.
+ *   [해시값 int][키 길이 + 1 int][값 길이 int][키 maxKeyLength 바이트][값 maxValueLength 바이트]
+ * 키 길이 + 1이 0인 칸은 빈 칸이다.(새로 할당한 direct 버퍼는 0으로 채워져 있다.)
+ * 키와 값은 최대 길이 안에서 길이를 앞에 적어두므로 짧은 키와 값도 저장할 수 있다.
+ *
+ * 충돌은 IntObjectHash와 같이 선형 탐사로 해결하고, 삭제하면 뒤의 칸을 당겨서(backward shift) 삭제 표시를 남기지 않는다.
+ * ByteBuffer 하나는 2GB를 넘을 수 없으므로 칸을 2의 거듭제곱 개씩 여러 버퍼(chunk)에 나눠 저장한다.
+ * 해시 함수는 HashTable.murmur3(byte[], seed)를 사용한다.
+ *
+ * 사용이 끝나면 close()로 메모리를 바로 반환한다. close()하지 않으면 버퍼 객체가 GC될 때 반환된다.
+ * 여러 스레드가 함께 사용하려면 외부에서 동기화해야 한다.
+ */
+public class OffHeapHash implements AutoCloseable {
+
+    private static final int HEADER = 12;
+    private static final int HASH_OFFSET = 0, KEY_LENGTH_OFFSET = 4, VALUE_LENGTH_OFFSET = 8;
+    // 해시값이 int이므로 칸의 수는 2^32를 넘지 않는다.
+    private static final long MAX_CAPACITY = 1L << 32;
+
+    final int maxKeyLength, maxValueLength, slotSize;
+    final double maxLoadFactor;
+    final int seed;
+
+    ByteBuffer[] chunks;
+    long capacity, mask;
+    // 칸 번호 -> (chunk 번호, chunk 안의 칸 번호)
+    int chunkShift;
+    long chunkMask;
+    long numElements, threshold;
+
+    // 칸을 옮길 때 사용하는 임시 배열
+    private final byte[] slotBuffer;
+
+    public OffHeapHash(int maxKeyLength, int maxValueLength, long capacity) {
+        this(maxKeyLength, maxValueLength, capacity, 0.75);
+    }
+
+    /**
+     * 생성자
+     * @param maxKeyLength - 키의 최대 바이트 수
+     * @param maxValueLength - 값의 최대 바이트 수
+     * @param capacity - 처음 칸의 수, 2의 거듭제곱으로 올림한다.
+     * @param maxLoadFactor - 원소 수 / 칸의 수가 이 값을 넘으면 칸을 2배로 늘린다.
+     */
+    public OffHeapHash(int maxKeyLength, int maxValueLength, long capacity, double maxLoadFactor) {
+        if(maxKeyLength < 1 || maxValueLength < 0)
+            throw new IllegalArgumentException("invalid lengths: " + maxKeyLength + ", " + maxValueLength);
+        if(maxLoadFactor <= 0 || maxLoadFactor >= 1)
+            throw new IllegalArgumentException("maxLoadFactor must be between 0 and 1: " + maxLoadFactor);
+        long size = (long)HEADER + maxKeyLength + maxValueLength;
+        if(size > Integer.MAX_VALUE / 2) throw new IllegalArgumentException("slot is too large: " + size);
+        this.maxKeyLength = maxKeyLength;
+        this.maxValueLength = maxValueLength;
+        this.slotSize = (int)size;
+        this.maxLoadFactor = maxLoadFactor;
+        this.seed = HashTable.randomSeed();
+        slotBuffer = new byte[slotSize];
+        allocate(Math.max(2, Math.min(MAX_CAPACITY, Long.highestOneBit(Math.max(1, capacity - 1)) << 1)));
+    }
+
+    private void allocate(long newCapacity) {
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        long slotsPerChunk = Math.min(newCapacity, Integer.highestOneBit(Integer.MAX_VALUE / slotSize));
+        chunkShift = Long.numberOfTrailingZeros(slotsPerChunk);
+        chunkMask = slotsPerChunk - 1;
+        chunks = new ByteBuffer[(int)(newCapacity / slotsPerChunk)];
+        for(int i=0; i<chunks.length; i++)
+            chunks[i] = ByteBuffer.allocateDirect((int)(slotsPerChunk * slotSize));
+        threshold = (long)(newCapacity * maxLoadFactor);
+    }
+
+    private ByteBuffer chunk(long slot) {
+        return chunks[(int)(slot >>> chunkShift)];
+    }
+
+    private int offset(long slot) {
+        return (int)(slot & chunkMask) * slotSize;
+    }
+
+    private long indexFor(int hash) {
+        return (hash & 0xffffffffL) & mask;
+    }
+
+    private void checkOpen() {
+        if(chunks == null) throw new IllegalStateException("closed");
+    }
+
+    private boolean isFree(long slot) {
+        return chunk(slot).getInt(offset(slot) + KEY_LENGTH_OFFSET) == 0;
+    }
+
+    /**
+     * slot에 저장된 키가 key와 같은지 확인한다. 해시값과 길이를 먼저 비교한다.
+     */
+    private boolean keyEquals(long slot, int hash, byte[] key) {
+        ByteBuffer buffer = chunk(slot);
+        int base = offset(slot);
+        if(buffer.getInt(base + HASH_OFFSET) != hash) return false;
+        if(buffer.getInt(base + KEY_LENGTH_OFFSET) != key.length + 1) return false;
+        int keyBase = base + HEADER;
+        for(int i=0; i<key.length; i++) {
+            if(buffer.get(keyBase + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * key가 있는 칸을 찾는다.
+     * @return - 칸 번호, 없으면 -1
+     */
+    private long find(int hash, byte[] key) {
+        long slot = indexFor(hash);
+        while(!isFree(slot)) {
+            if(keyEquals(slot, hash, key)) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * key, value를 추가하거나 기존 값을 바꾼다.
+     * @param key
+     * @param value
+     * @return - 새로운 key가 추가되었으면 true, 기존 값을 바꿨으면 false
+     */
+    public boolean put(byte[] key, byte[] value) {
+        checkOpen();
+        if(key.length > maxKeyLength) throw new IllegalArgumentException("key is longer than " + maxKeyLength + ": " + key.length);
+        if(value.length > maxValueLength) throw new IllegalArgumentException("value is longer than " + maxValueLength + ": " + value.length);
+        if(numElements >= threshold && capacity < MAX_CAPACITY)
+            resize(capacity * 2);
+        int hash = HashTable.murmur3(key, seed);
+        long slot = indexFor(hash);
+        boolean added = true;
+        while(!isFree(slot)) {
+            if(keyEquals(slot, hash, key)) {
+                added = false;
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if(added && numElements == capacity - 1) throw new IllegalStateException("table is full");
+        ByteBuffer buffer = chunk(slot);
+        int base = offset(slot);
+        if(added) {
+            buffer.putInt(base + HASH_OFFSET, hash);
+            buffer.putInt(base + KEY_LENGTH_OFFSET, key.length + 1);
+            buffer.put(base + HEADER, key, 0, key.length);
+            numElements++;
+        }
+        buffer.putInt(base + VALUE_LENGTH_OFFSET, value.length);
+        buffer.put(base + HEADER + maxKeyLength, value, 0, value.length);
+        return added;
+    }
+
+    /**
+     * key의 값을 힙의 byte[]로 복사해서 반환한다.
+     * @param key
+     * @return - 없으면 null
+     */
+    public byte[] get(byte[] key) {
+        checkOpen();
+        long slot = find(HashTable.murmur3(key, seed), key);
+        if(slot < 0) return null;
+        ByteBuffer buffer = chunk(slot);
+        int base = offset(slot);
+        byte[] value = new byte[buffer.getInt(base + VALUE_LENGTH_OFFSET)];
+        buffer.get(base + HEADER + maxKeyLength, value, 0, value.length);
+        return value;
+    }
+
+    public boolean containsKey(byte[] key) {
+        checkOpen();
+        return find(HashTable.murmur3(key, seed), key) >= 0;
+    }
+
+    /**
+     * key를 삭제하고 뒤의 칸들을 당겨서 빈 칸을 메운다.
+     * @param key
+     * @return - 삭제했으면 true
+     */
+    public boolean remove(byte[] key) {
+        checkOpen();
+        long slot = find(HashTable.murmur3(key, seed), key);
+        if(slot < 0) return false;
+        shiftSlots(slot);
+        numElements--;
+        return true;
+    }
+
+    /**
+     * IntObjectHash.shiftKeys와 같은 방법으로 gap 뒤의 칸 중 gap으로 옮겨도 되는 칸을 당겨온다.
+     * @param gap
+     */
+    private void shiftSlots(long gap) {
+        long slot = gap;
+        while(true) {
+            slot = (slot + 1) & mask;
+            if(isFree(slot)) break;
+            long ideal = indexFor(chunk(slot).getInt(offset(slot) + HASH_OFFSET));
+            if(((slot - ideal) & mask) >= ((slot - gap) & mask)) {
+                copySlot(slot, gap);
+                gap = slot;
+            }
+        }
+        chunk(gap).putInt(offset(gap) + KEY_LENGTH_OFFSET, 0);
+    }
+
+    private void copySlot(long from, long to) {
+        chunk(from).get(offset(from), slotBuffer, 0, slotSize);
+        chunk(to).put(offset(to), slotBuffer, 0, slotSize);
+    }
+
+    /**
+     * 새로운 크기의 버퍼들을 할당하고 칸을 옮긴 뒤 기존 버퍼를 바로 반환한다.
+     * 칸에 해시값이 저장되어 있으므로 키를 다시 해시하지 않는다.
+     * @param newCapacity
+     */
+    public void resize(long newCapacity) {
+        checkOpen();
+        if(newCapacity <= numElements || newCapacity > MAX_CAPACITY)
+            throw new IllegalArgumentException("invalid capacity: " + newCapacity);
+        ByteBuffer[] oldChunks = chunks;
+        long oldCapacity = capacity;
+        int oldShift = chunkShift;
+        long oldMask = chunkMask;
+        allocate(Long.highestOneBit(newCapacity - 1) << 1);
+        for(long i=0; i<oldCapacity; i++) {
+            ByteBuffer buffer = oldChunks[(int)(i >>> oldShift)];
+            int base = (int)(i & oldMask) * slotSize;
+            if(buffer.getInt(base + KEY_LENGTH_OFFSET) == 0) continue;
+            long slot = indexFor(buffer.getInt(base + HASH_OFFSET));
+            while(!isFree(slot))
+                slot = (slot + 1) & mask;
+            buffer.get(base, slotBuffer, 0, slotSize);
+            chunk(slot).put(offset(slot), slotBuffer, 0, slotSize);
+        }
+        for(ByteBuffer buffer : oldChunks)
+            release(buffer);
+    }
+
+    public long size() {
+        return numElements;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * 힙 밖에 할당된 바이트 수
+     * @return
+     */
+    public long offHeapBytes() {
+        return capacity * slotSize;
+    }
+
+    /**
+     * 모든 버퍼의 메모리를 반환한다. 이후에 다른 메서드를 호출하면 IllegalStateException을 던진다.
+     */
+    @Override
+    public void close() {
+        if(chunks == null) return;
+        for(ByteBuffer buffer : chunks)
+            release(buffer);
+        chunks = null;
+        numElements = 0;
+    }
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            //사용할 수 없으면 GC가 버퍼를 정리할 때 메모리가 반환된다.
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * direct 버퍼의 메모리를 GC를 기다리지 않고 바로 반환한다.
+     * 자바 9 이후에는 sun.misc.Unsafe.invokeCleaner로만 할 수 있으므로 리플렉션으로 호출한다.
+     * @param buffer
+     */
+    static void release(ByteBuffer buffer) {
+        if(INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch(ReflectiveOperationException e) {
+            //GC가 정리하도록 둔다.
+        }
+    }
+}
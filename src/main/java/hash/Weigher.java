@@ -0,0 +1,12 @@
+package hash;
+
+/**
+ * BoundedCache에서 원소 하나가 차지하는 크기(가중치)를 계산하는 함수
+ * 원소 수 대신 바이트 수처럼 원소마다 크기가 다른 기준으로 캐시의 크기를 제한할 때 사용한다.
+ * @param <K>
+ * @param <V>
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+    public int weigh(K key, V value);
+}
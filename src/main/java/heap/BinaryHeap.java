@@ -1,63 +1,224 @@
 package heap;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 배열로 구현한 이진 힙
+ * 루트(array[0])에는 항상 가장 큰 원소가 있다.(최대 힙) 작은 원소가 먼저 나오게 하려면 Comparator.reverseOrder()를 넘긴다.
+ * position 위치의 노드의 부모는 (position-1)/2, 자식은 2*position+1, 2*position+2에 있다.
+ *
+ * 배열이 가득 차면 1.5배로 늘린다.
+ * Comparator를 넘기지 않으면 원소를 Comparable로 비교한다.
+ *
+ * @param <E>
+ */
 public class BinaryHeap<E> {
+    // 마지막 원소의 위치 (비어있으면 -1)
     int lastPosition;
     E[] array;
+    final Comparator<? super E> comparator;
+
+    static final int DEFAULT_SIZE = 16;
+
+    public BinaryHeap() {
+        this(DEFAULT_SIZE, null);
+    }
 
     public BinaryHeap(int size) {
-        array = (E[])new Object[size];
+        this(size, null);
+    }
+
+    /**
+     * 생성자
+     * size는 처음 배열의 크기이고, 원소가 더 들어오면 자동으로 늘어난다.
+     * @param size
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     */
+    public BinaryHeap(int size, Comparator<? super E> comparator) {
+        array = (E[])new Object[Math.max(1, size)];
+        lastPosition = -1;
+        this.comparator = comparator;
+    }
+
+    /**
+     * 이미 있는 원소들로 힙을 만든다.(heapify)
+     * 원소를 하나씩 add하면 O(n log n)이지만, 배열에 그대로 복사한 뒤
+     * 자식이 있는 마지막 노드부터 루트까지 거꾸로 trickleDown하면 O(n)에 힙이 된다.(Floyd의 방법)
+     * 아래쪽 노드일수록 개수는 많지만 내려갈 거리가 짧기 때문이다.
+     * @param elements - 복사해서 사용하므로 원래 배열은 바뀌지 않는다.
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     */
+    public BinaryHeap(E[] elements, Comparator<? super E> comparator) {
+        array = (E[])Arrays.copyOf(elements, Math.max(1, elements.length), Object[].class);
+        lastPosition = elements.length - 1;
+        this.comparator = comparator;
+        heapify();
+    }
+
+    public BinaryHeap(E[] elements) {
+        this(elements, null);
     }
 
+    /**
+     * 컬렉션의 원소들로 O(n)에 힙을 만든다.(heapify)
+     * @param elements
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     */
+    public BinaryHeap(Collection<? extends E> elements, Comparator<? super E> comparator) {
+        this((E[])elements.toArray(), comparator);
+    }
+
+    public BinaryHeap(Collection<? extends E> elements) {
+        this(elements, null);
+    }
+
+    void heapify() {
+        for(int i=(lastPosition-1)/2; i>=0; i--)
+            trickleDown(i);
+    }
+
+    private int compare(E a, E b) {
+        if(comparator != null) return comparator.compare(a, b);
+        return ((Comparable<E>)a).compareTo(b);
+    }
+
+    /**
+     * 원소를 배열의 마지막에 넣고 부모보다 크면 위로 올린다.
+     * 배열이 가득 찼으면 먼저 늘린다.
+     * 시간복잡도: O(log n)
+     * @param obj
+     */
     public void add(E obj) {
-        lastPosition = 0;
+        if(lastPosition == array.length - 1)
+            array = Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
         array[++lastPosition] = obj;
         trickleUp(lastPosition);
     }
 
+    /**
+     * 여러 원소를 한 번에 추가한다.
+     * 추가하는 원소가 이미 있는 원소보다 많으면 배열 끝에 모두 붙인 뒤 전체를 다시 heapify한다.(O(n+k))
+     * 적으면 하나씩 add한다.(O(k log n))
+     * @param elements
+     */
+    public void addAll(Collection<? extends E> elements) {
+        int count = elements.size();
+        if(count < size()) {
+            for(E obj : elements)
+                add(obj);
+            return;
+        }
+        if(lastPosition + count >= array.length)
+            array = Arrays.copyOf(array, lastPosition + 1 + count);
+        for(E obj : elements)
+            array[++lastPosition] = obj;
+        heapify();
+    }
+
     public void swap(int from, int to) {
         E tmp = array[from];
         array[from] = array[to];
         array[to] = tmp;
     }
 
+    /**
+     * position의 원소가 부모보다 크면 부모와 자리를 바꾸는 것을 반복한다.
+     * 매번 swap하는 대신 올라갈 원소를 따로 들고 있다가 부모들을 한 칸씩 내리고, 마지막 자리에 한 번만 쓴다.
+     * @param position
+     */
     public void trickleUp(int position) {
-        if(position == 0) return;
-
-        int parent = (int)Math.floor((position-1)/2);
-        if(((Comparable<E>)array[position]).compareTo(array[parent])>0){
-            swap(position, parent);
-            trickleUp(parent);
+        E obj = array[position];
+        while(position > 0) {
+            int parent = (position-1)/2;
+            if(compare(obj, array[parent]) <= 0) break;
+            array[position] = array[parent];
+            position = parent;
         }
+        array[position] = obj;
     }
 
+    /**
+     * 루트의 원소를 꺼낸다.
+     * 마지막 원소를 루트로 옮긴 뒤 자식보다 작으면 아래로 내린다.
+     * 시간복잡도: O(log n)
+     * @return - 가장 큰 원소, 비어있으면 null
+     */
     public E remove() {
+        if(lastPosition < 0) return null;
         E tmp = array[0];
-        swap(0, lastPosition--);
-        trickleDown(0);
+        array[0] = array[lastPosition];
+        array[lastPosition--] = null;
+        if(lastPosition > 0)
+            trickleDown(0);
         return tmp;
     }
 
+    /**
+     * parent의 원소가 두 자식 중 큰 쪽보다 작으면 자리를 바꾸는 것을 반복한다.
+     * trickleUp과 같이 내려갈 원소를 들고 있다가 마지막 자리에 한 번만 쓴다.
+     * @param parent
+     */
     public void trickleDown(int parent) {
-        int left = 2*parent + 1;
-        int right = 2*parent + 2;
-        if(left == lastPosition && (((Comparable<E>)array[parent]).compareTo(array[left])<0)) {
-            swap(left, parent);
-            return;
-        }
-        if(right == lastPosition && (((Comparable<E>)array[parent]).compareTo(array[right])<0)){
-            swap(right, parent);
-            return;
-        }
-        if(left >= lastPosition || right >= lastPosition)
-            return;
-        if(((Comparable<E>)array[left]).compareTo(array[right])>0 && (((Comparable<E>)array[parent]).compareTo(array[left])<0)){
-            swap(parent, left);
-            trickleDown(left);
-        } else if(((Comparable<E>)array[parent]).compareTo(array[right])<0) {
-            swap(parent, right);
-            trickleDown(right);
+        E obj = array[parent];
+        int half = (lastPosition + 1) / 2;   // 이 위치부터는 자식이 없는 leaf이다.
+        while(parent < half) {
+            int child = 2*parent + 1;
+            int right = child + 1;
+            if(right <= lastPosition && compare(array[right], array[child]) > 0)
+                child = right;
+            if(compare(obj, array[child]) >= 0) break;
+            array[parent] = array[child];
+            parent = child;
         }
+        array[parent] = obj;
+    }
+
+    /**
+     * 루트의 원소를 꺼내지 않고 확인한다.
+     * @return - 가장 큰 원소, 비어있으면 null
+     */
+    public E peek() {
+        return lastPosition < 0 ? null : array[0];
+    }
+
+    public int size() {
+        return lastPosition + 1;
+    }
+
+    public boolean isEmpty() {
+        return lastPosition < 0;
+    }
 
+    public void clear() {
+        Arrays.fill(array, 0, lastPosition + 1, null);
+        lastPosition = -1;
+    }
+
+    /**
+     * 배열의 0 ~ lastPosition 범위를 나눠가며 순회하는 Spliterator
+     * 원소는 힙 배열의 순서대로 나오며 정렬된 순서가 아니다.
+     * @return
+     */
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(array, 0, lastPosition + 1, Spliterator.NONNULL);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
 
+    /**
+     * 여러 스레드에서 배열 범위별로 나눠 처리하는 스트림
+     * 처리하는 동안 힙을 변경하면 안 된다.
+     * @return
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
     }
 }
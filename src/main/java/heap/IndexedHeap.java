@@ -0,0 +1,235 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * 원소의 위치를 추적하는 이진 힙 (indexed priority queue)
+ * add할 때 Handle을 돌려주고, Handle은 힙 배열에서 자기 원소의 현재 위치(index)를 기억한다.
+ * 원소가 trickleUp, trickleDown으로 움직일 때마다 Handle의 index도 함께 갱신하므로
+ * Handle만 있으면 원소를 찾는 선형 탐색 없이 우선순위 변경(decreaseKey, increaseKey)이나 삭제를 O(log n)에 할 수 있다.
+ *
+ * 루트에는 항상 가장 작은 원소가 있다.(최소 힙) 다익스트라, 타임아웃 관리처럼 작은 값을 먼저 꺼내는 용도에 맞춘 것이다.
+ * 가장 큰 원소를 먼저 꺼내려면 Comparator.reverseOrder()를 넘긴다.
+ *
+ * @param <E>
+ */
+public class IndexedHeap<E> {
+
+    /**
+     * 힙 안의 원소 하나를 가리키는 핸들
+     * 원소가 힙에서 빠지면 index가 -1이 된다.
+     * @param <E>
+     */
+    public static final class Handle<E> {
+        E element;
+        int index;
+        final IndexedHeap<E> owner;
+
+        Handle(IndexedHeap<E> owner, E element) {
+            this.owner = owner;
+            this.element = element;
+        }
+
+        public E get() {
+            return element;
+        }
+
+        /**
+         * @return - 아직 힙 안에 있으면 true
+         */
+        public boolean isActive() {
+            return index >= 0;
+        }
+    }
+
+    // 마지막 원소의 위치 (비어있으면 -1)
+    int lastPosition;
+    Handle<E>[] array;
+    final Comparator<? super E> comparator;
+
+    public IndexedHeap() {
+        this(16, null);
+    }
+
+    /**
+     * @param size - 처음 배열의 크기, 가득 차면 자동으로 늘어난다.
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     */
+    public IndexedHeap(int size, Comparator<? super E> comparator) {
+        array = (Handle<E>[])new Handle[Math.max(1, size)];
+        lastPosition = -1;
+        this.comparator = comparator;
+    }
+
+    private int compare(E a, E b) {
+        if(comparator != null) return comparator.compare(a, b);
+        return ((Comparable<E>)a).compareTo(b);
+    }
+
+    /**
+     * 원소를 추가하고 그 원소의 Handle을 돌려준다.
+     * 시간복잡도: O(log n)
+     * @param obj
+     * @return
+     */
+    public Handle<E> add(E obj) {
+        if(lastPosition == array.length - 1)
+            array = Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
+        Handle<E> handle = new Handle<>(this, obj);
+        lastPosition++;
+        trickleUp(lastPosition, handle);
+        return handle;
+    }
+
+    /**
+     * 가장 작은 원소를 꺼낸다.
+     * @return - 비어있으면 null
+     */
+    public E remove() {
+        if(lastPosition < 0) return null;
+        Handle<E> top = array[0];
+        removeAt(0);
+        return top.element;
+    }
+
+    /**
+     * 가장 작은 원소의 Handle을 꺼낸다.
+     * @return - 비어있으면 null
+     */
+    public Handle<E> removeHandle() {
+        if(lastPosition < 0) return null;
+        Handle<E> top = array[0];
+        removeAt(0);
+        return top;
+    }
+
+    public E peek() {
+        return lastPosition < 0 ? null : array[0].element;
+    }
+
+    /**
+     * Handle이 가리키는 원소를 힙에서 삭제한다.
+     * 마지막 원소를 그 자리로 옮긴 뒤, 옮긴 원소가 부모보다 작으면 올리고 아니면 내린다.
+     * 시간복잡도: O(log n)
+     * @param handle
+     * @return - 삭제했으면 true, 이미 힙에 없던 Handle이면 false
+     */
+    public boolean remove(Handle<E> handle) {
+        if(!contains(handle)) return false;
+        removeAt(handle.index);
+        return true;
+    }
+
+    public boolean contains(Handle<E> handle) {
+        return handle.owner == this && handle.index >= 0;
+    }
+
+    private void removeAt(int position) {
+        Handle<E> removed = array[position];
+        Handle<E> last = array[lastPosition];
+        array[lastPosition--] = null;
+        removed.index = -1;
+        if(removed == last) return;
+        if(position > 0 && compare(last.element, array[(position-1)/2].element) < 0)
+            trickleUp(position, last);
+        else
+            trickleDown(position, last);
+    }
+
+    /**
+     * 원소를 더 작은 값으로 바꾸고 위로 올린다.
+     * @param handle
+     * @param obj - 기존 원소보다 작거나 같아야 한다.
+     */
+    public void decreaseKey(Handle<E> handle, E obj) {
+        checkActive(handle);
+        if(compare(obj, handle.element) > 0)
+            throw new IllegalArgumentException("new key is greater than the current key");
+        handle.element = obj;
+        trickleUp(handle.index, handle);
+    }
+
+    /**
+     * 원소를 더 큰 값으로 바꾸고 아래로 내린다.
+     * @param handle
+     * @param obj - 기존 원소보다 크거나 같아야 한다.
+     */
+    public void increaseKey(Handle<E> handle, E obj) {
+        checkActive(handle);
+        if(compare(obj, handle.element) < 0)
+            throw new IllegalArgumentException("new key is less than the current key");
+        handle.element = obj;
+        trickleDown(handle.index, handle);
+    }
+
+    /**
+     * 원소를 바꾸고, 크기에 따라 위나 아래로 옮긴다.
+     * @param handle
+     * @param obj
+     */
+    public void update(Handle<E> handle, E obj) {
+        checkActive(handle);
+        if(compare(obj, handle.element) < 0) decreaseKey(handle, obj);
+        else increaseKey(handle, obj);
+    }
+
+    private void checkActive(Handle<E> handle) {
+        if(!contains(handle))
+            throw new NoSuchElementException("handle is not in this heap");
+    }
+
+    /**
+     * position의 빈 자리에 handle을 넣으려고 할 때, 부모가 더 크면 부모를 내리고 위로 올라간다.
+     * 움직이는 모든 Handle의 index를 새 위치로 갱신한다.
+     */
+    private void trickleUp(int position, Handle<E> handle) {
+        while(position > 0) {
+            int parent = (position-1)/2;
+            Handle<E> p = array[parent];
+            if(compare(handle.element, p.element) >= 0) break;
+            array[position] = p;
+            p.index = position;
+            position = parent;
+        }
+        array[position] = handle;
+        handle.index = position;
+    }
+
+    private void trickleDown(int parent, Handle<E> handle) {
+        int half = (lastPosition + 1) / 2;
+        while(parent < half) {
+            int child = 2*parent + 1;
+            int right = child + 1;
+            if(right <= lastPosition && compare(array[right].element, array[child].element) < 0)
+                child = right;
+            Handle<E> c = array[child];
+            if(compare(handle.element, c.element) <= 0) break;
+            array[parent] = c;
+            c.index = parent;
+            parent = child;
+        }
+        array[parent] = handle;
+        handle.index = parent;
+    }
+
+    public int size() {
+        return lastPosition + 1;
+    }
+
+    public boolean isEmpty() {
+        return lastPosition < 0;
+    }
+
+    /**
+     * 모든 원소를 삭제한다. 남아있던 Handle은 모두 비활성(index = -1)이 된다.
+     */
+    public void clear() {
+        for(int i=0; i<=lastPosition; i++) {
+            array[i].index = -1;
+            array[i] = null;
+        }
+        lastPosition = -1;
+    }
+}
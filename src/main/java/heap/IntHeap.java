@@ -0,0 +1,105 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * int 값만 저장하는 이진 힙
+ * BinaryHeap과 같은 구조이지만 int[] 배열을 사용하므로 원소를 박싱하지 않고, 비교도 Comparator 호출 없이 바로 한다.
+ * 루트(array[0])에는 항상 가장 작은 값이 있다.(최소 힙) 타임스탬프처럼 작은 값을 먼저 꺼내는 용도에 맞춘 것이다.
+ * 가장 큰 값을 먼저 꺼내려면 값의 부호를 바꿔서(-value) 넣는다.
+ */
+public class IntHeap {
+    // 마지막 원소의 위치 (비어있으면 -1)
+    int lastPosition;
+    int[] array;
+
+    public IntHeap() {
+        this(16);
+    }
+
+    public IntHeap(int size) {
+        array = new int[Math.max(1, size)];
+        lastPosition = -1;
+    }
+
+    /**
+     * 이미 있는 값들로 O(n)에 힙을 만든다.(Floyd의 heapify)
+     * @param values - 복사해서 사용하므로 원래 배열은 바뀌지 않는다.
+     */
+    public IntHeap(int[] values) {
+        array = Arrays.copyOf(values, Math.max(1, values.length));
+        lastPosition = values.length - 1;
+        for(int i=(lastPosition-1)/2; i>=0; i--)
+            trickleDown(i);
+    }
+
+    public void add(int value) {
+        if(lastPosition == array.length - 1)
+            array = Arrays.copyOf(array, array.length + (array.length >> 1) + 1);
+        array[++lastPosition] = value;
+        trickleUp(lastPosition);
+    }
+
+    private void trickleUp(int position) {
+        int value = array[position];
+        while(position > 0) {
+            int parent = (position-1)/2;
+            if(value >= array[parent]) break;
+            array[position] = array[parent];
+            position = parent;
+        }
+        array[position] = value;
+    }
+
+    /**
+     * 가장 작은 값을 꺼낸다.
+     * @return
+     * @throws NoSuchElementException - 비어있을 때
+     */
+    public int remove() {
+        if(lastPosition < 0) throw new NoSuchElementException();
+        int tmp = array[0];
+        array[0] = array[lastPosition--];
+        if(lastPosition > 0)
+            trickleDown(0);
+        return tmp;
+    }
+
+    private void trickleDown(int parent) {
+        int value = array[parent];
+        int half = (lastPosition + 1) / 2;
+        while(parent < half) {
+            int child = 2*parent + 1;
+            int right = child + 1;
+            if(right <= lastPosition && array[right] < array[child])
+                child = right;
+            if(value <= array[child]) break;
+            array[parent] = array[child];
+            parent = child;
+        }
+        array[parent] = value;
+    }
+
+    /**
+     * 가장 작은 값을 꺼내지 않고 확인한다.
+     * @return
+     * @throws NoSuchElementException - 비어있을 때
+     */
+    public int peek() {
+        if(lastPosition < 0) throw new NoSuchElementException();
+        return array[0];
+    }
+
+    public int size() {
+        return lastPosition + 1;
+    }
+
+    public boolean isEmpty() {
+        return lastPosition < 0;
+    }
+
+    public void clear() {
+        lastPosition = -1;
+    }
+}
@@ -0,0 +1,132 @@
+package heap;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * long 우선순위와 int 데이터(payload)를 함께 저장하는 이진 힙
+ * 스케줄러에서 (실행 시각, 작업 번호)처럼 우선순위와 데이터를 함께 넣을 때 객체를 만들지 않도록
+ * priorities, payloads 두 개의 배열을 같은 인덱스로 함께 움직인다.
+ * 루트에는 항상 우선순위가 가장 작은 원소가 있다.(최소 힙)
+ */
+public class LongIntHeap {
+    // 마지막 원소의 위치 (비어있으면 -1)
+    int lastPosition;
+    long[] priorities;
+    int[] payloads;
+
+    public LongIntHeap() {
+        this(16);
+    }
+
+    public LongIntHeap(int size) {
+        priorities = new long[Math.max(1, size)];
+        payloads = new int[Math.max(1, size)];
+        lastPosition = -1;
+    }
+
+    /**
+     * 이미 있는 (우선순위, 데이터) 쌍으로 O(n)에 힙을 만든다.(Floyd의 heapify)
+     * @param priorities
+     * @param payloads - priorities와 같은 길이
+     */
+    public LongIntHeap(long[] priorities, int[] payloads) {
+        if(priorities.length != payloads.length)
+            throw new IllegalArgumentException("priorities and payloads differ in length: " + priorities.length + " != " + payloads.length);
+        this.priorities = Arrays.copyOf(priorities, Math.max(1, priorities.length));
+        this.payloads = Arrays.copyOf(payloads, Math.max(1, payloads.length));
+        lastPosition = priorities.length - 1;
+        for(int i=(lastPosition-1)/2; i>=0; i--)
+            trickleDown(i);
+    }
+
+    public void add(long priority, int payload) {
+        if(lastPosition == priorities.length - 1) {
+            int newSize = priorities.length + (priorities.length >> 1) + 1;
+            priorities = Arrays.copyOf(priorities, newSize);
+            payloads = Arrays.copyOf(payloads, newSize);
+        }
+        lastPosition++;
+        trickleUp(lastPosition, priority, payload);
+    }
+
+    /**
+     * position의 빈 자리에 (priority, payload)를 넣으려고 할 때, 부모가 더 크면 부모를 내리고 위로 올라간다.
+     */
+    private void trickleUp(int position, long priority, int payload) {
+        while(position > 0) {
+            int parent = (position-1)/2;
+            if(priority >= priorities[parent]) break;
+            priorities[position] = priorities[parent];
+            payloads[position] = payloads[parent];
+            position = parent;
+        }
+        priorities[position] = priority;
+        payloads[position] = payload;
+    }
+
+    /**
+     * 우선순위가 가장 작은 원소를 꺼내고 그 데이터를 반환한다.
+     * 꺼내기 전에 우선순위가 필요하면 peekPriority()를 먼저 호출한다.
+     * @return
+     * @throws NoSuchElementException - 비어있을 때
+     */
+    public int remove() {
+        if(lastPosition < 0) throw new NoSuchElementException();
+        int tmp = payloads[0];
+        priorities[0] = priorities[lastPosition];
+        payloads[0] = payloads[lastPosition];
+        lastPosition--;
+        if(lastPosition > 0)
+            trickleDown(0);
+        return tmp;
+    }
+
+    private void trickleDown(int parent) {
+        long priority = priorities[parent];
+        int payload = payloads[parent];
+        int half = (lastPosition + 1) / 2;
+        while(parent < half) {
+            int child = 2*parent + 1;
+            int right = child + 1;
+            if(right <= lastPosition && priorities[right] < priorities[child])
+                child = right;
+            if(priority <= priorities[child]) break;
+            priorities[parent] = priorities[child];
+            payloads[parent] = payloads[child];
+            parent = child;
+        }
+        priorities[parent] = priority;
+        payloads[parent] = payload;
+    }
+
+    /**
+     * @return - 루트 원소의 우선순위
+     * @throws NoSuchElementException - 비어있을 때
+     */
+    public long peekPriority() {
+        if(lastPosition < 0) throw new NoSuchElementException();
+        return priorities[0];
+    }
+
+    /**
+     * @return - 루트 원소의 데이터
+     * @throws NoSuchElementException - 비어있을 때
+     */
+    public int peek() {
+        if(lastPosition < 0) throw new NoSuchElementException();
+        return payloads[0];
+    }
+
+    public int size() {
+        return lastPosition + 1;
+    }
+
+    public boolean isEmpty() {
+        return lastPosition < 0;
+    }
+
+    public void clear() {
+        lastPosition = -1;
+    }
+}
@@ -0,0 +1,233 @@
+package heap;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 여러 스레드가 동시에 사용할 수 있는 우선순위 큐 (MultiQueue)
+ * 하나의 BinaryHeap에 전역 락을 거는 대신 여러 개의 BinaryHeap(서브 힙)을 두고 각각 락을 둔다.
+ *
+ * 1. add는 무작위로 고른 서브 힙에 넣는다. 락을 바로 잡지 못하면(tryLock 실패) 기다리지 않고 다른 서브 힙을 고른다.
+ * 2. poll은 무작위로 두 서브 힙을 골라 루트를 비교하고, 더 큰 쪽에서 꺼낸다.(power of two choices)
+ *    BinaryHeap은 스레드에 안전하지 않으므로 락 없이 힙을 읽지 않는다.
+ *    대신 각 서브 힙의 루트를 락을 잡은 채로 tops에 게시하고, 비교할 때는 tops를 읽는다.
+ *    비교 결과는 힌트일 뿐이고, 실제로 꺼내는 것은 락을 잡은 뒤이다.
+ *
+ * 모든 스레드가 함께 고치는 전역 카운터가 없다. add와 poll은 자기가 고른 서브 힙의 락과 tops 칸만 쓴다.
+ * 그래서 poll은 서브 힙들을 한 바퀴 확인해서 꺼낼 원소가 없으면 null을 반환한다.
+ * 다른 스레드가 넣는 중인 원소는 보지 못할 수 있다.
+ * take()만 원소가 들어올 때까지 기다리며, 기다리는 스레드가 있을 때만 add가 waitLock을 잡고 깨운다.
+ *
+ * 전체에서 가장 큰 원소가 항상 먼저 나온다는 보장은 없다.(relaxed priority queue)
+ * 대신 서브 힙이 스레드 수의 2배 이상이면 스레드끼리 같은 락을 두고 기다리는 일이 거의 없어서
+ * 스레드 수가 늘어도 처리량이 함께 늘어난다. 꺼낸 원소는 평균적으로 전체에서 O(서브 힙 개수) 등 안에 든다.
+ *
+ * 원소의 순서는 BinaryHeap과 같다.(기본은 가장 큰 원소가 먼저, Comparator.reverseOrder()를 넘기면 작은 원소가 먼저)
+ *
+ * @param <E>
+ */
+public class MultiQueue<E> {
+    // 스레드 하나당 서브 힙의 수
+    static final int QUEUES_PER_THREAD = 2;
+    // tops, sizes에서 서브 힙 하나가 차지하는 칸 수. 서로 다른 서브 힙의 칸이 같은 캐시 라인에 들어가지 않게 띄운다.
+    static final int STRIDE = 16;
+
+    final BinaryHeap<E>[] queues;
+    final ReentrantLock[] locks;
+    // 각 서브 힙의 루트와 원소 수. 서브 힙의 락을 잡은 스레드만 쓰고, 다른 스레드는 락 없이 읽는다.
+    final AtomicReferenceArray<E> tops;
+    final AtomicIntegerArray sizes;
+    final Comparator<? super E> comparator;
+
+    // take()에서 기다리는 스레드를 위한 락과 조건
+    final ReentrantLock waitLock = new ReentrantLock();
+    final Condition notEmpty = waitLock.newCondition();
+    // 기다리는 스레드 수 (waitLock을 잡고 바꾼다.) 0이면 add는 waitLock을 건드리지 않는다.
+    volatile int waiters;
+
+    public MultiQueue() {
+        this(Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    public MultiQueue(int threads) {
+        this(threads, null);
+    }
+
+    /**
+     * 생성자
+     * @param threads - 동시에 사용할 스레드 수의 예상치, 서브 힙은 threads * 2개가 된다.
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     */
+    public MultiQueue(int threads, Comparator<? super E> comparator) {
+        int n = Math.max(2, threads * QUEUES_PER_THREAD);
+        queues = (BinaryHeap<E>[])new BinaryHeap[n];
+        locks = new ReentrantLock[n];
+        for(int i=0; i<n; i++) {
+            queues[i] = new BinaryHeap<>(BinaryHeap.DEFAULT_SIZE, comparator);
+            locks[i] = new ReentrantLock();
+        }
+        tops = new AtomicReferenceArray<>(n * STRIDE);
+        sizes = new AtomicIntegerArray(n * STRIDE);
+        this.comparator = comparator;
+    }
+
+    private int compare(E a, E b) {
+        if(comparator != null) return comparator.compare(a, b);
+        return ((Comparable<E>)a).compareTo(b);
+    }
+
+    /**
+     * 서브 힙 i의 루트와 원소 수를 게시한다. 서브 힙 i의 락을 잡은 채로 호출한다.
+     * volatile 쓰기이므로 tops에서 원소를 읽은 스레드는 그 원소의 필드도 모두 볼 수 있다.
+     */
+    private void publish(int i) {
+        tops.set(i * STRIDE, queues[i].peek());
+        sizes.set(i * STRIDE, queues[i].size());
+    }
+
+    /**
+     * 원소를 무작위로 고른 서브 힙에 넣는다.
+     * take()에서 기다리는 스레드가 있으면 깨운다.
+     * @param obj
+     */
+    public void add(E obj) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while(true) {
+            int i = random.nextInt(queues.length);
+            ReentrantLock lock = locks[i];
+            if(!lock.tryLock()) continue;
+            try {
+                queues[i].add(obj);
+                publish(i);
+            } finally {
+                lock.unlock();
+            }
+            break;
+        }
+        // tops를 쓴 뒤에 waiters를 읽고, take는 waiters를 쓴 뒤에 tops를 읽으므로 둘 중 하나는 반드시 상대를 본다.
+        if(waiters > 0) {
+            waitLock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 원소를 하나 꺼낸다.
+     * 두 서브 힙의 루트를 비교해서 고르는 것을 반복하다가, 서브 힙 개수만큼 실패하면
+     * (원소가 몇 개 남지 않아 대부분의 서브 힙이 비어있는 경우) 모든 서브 힙을 한 바퀴 확인한다.
+     * @return - 모든 서브 힙이 비어있었으면 null
+     */
+    public E poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for(int attempt=0; attempt<queues.length; attempt++) {
+            int i = random.nextInt(queues.length);
+            int j = random.nextInt(queues.length);
+            E a = tops.get(i * STRIDE);
+            E b = tops.get(j * STRIDE);
+            if(a == null && b == null) continue;
+            int chosen = b == null || (a != null && compare(a, b) >= 0) ? i : j;
+            E obj = remove(chosen, false);
+            if(obj != null) return obj;
+        }
+        int start = random.nextInt(queues.length);
+        for(int k=0; k<queues.length; k++) {
+            int i = (start + k) % queues.length;
+            if(tops.get(i * STRIDE) == null) continue;
+            E obj = remove(i, true);
+            if(obj != null) return obj;
+        }
+        return null;
+    }
+
+    /**
+     * 원소가 들어올 때까지 최대 timeout만큼 기다렸다가 꺼낸다.
+     * @return - 시간 안에 원소가 없으면 null
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E obj = poll();
+        if(obj != null) return obj;
+        long nanos = unit.toNanos(timeout);
+        waitLock.lockInterruptibly();
+        waiters++;
+        try {
+            while(true) {
+                obj = poll();
+                if(obj != null) return obj;
+                if(nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+        } finally {
+            waiters--;
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * 원소가 들어올 때까지 기다렸다가 꺼낸다.
+     * 먼저 기다리지 않고 poll()을 해보고, 비어있을 때만 waitLock을 잡고 기다린다.
+     * @return
+     */
+    public E take() throws InterruptedException {
+        E obj = poll();
+        if(obj != null) return obj;
+        waitLock.lockInterruptibly();
+        waiters++;
+        try {
+            while(true) {
+                obj = poll();
+                if(obj != null) return obj;
+                notEmpty.await();
+            }
+        } finally {
+            waiters--;
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * 서브 힙 i에서 루트를 꺼낸다.
+     * @param i
+     * @param block - false이면 락을 바로 잡지 못할 때 기다리지 않고 null을 반환한다.
+     * @return
+     */
+    private E remove(int i, boolean block) {
+        ReentrantLock lock = locks[i];
+        if(block) lock.lock();
+        else if(!lock.tryLock()) return null;
+        try {
+            E obj = queues[i].remove();
+            if(obj != null) publish(i);
+            return obj;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 원소의 수
+     * 서브 힙마다 게시된 원소 수를 더하므로, 다른 스레드가 사용하는 중이면 근사값이다.
+     * @return
+     */
+    public int size() {
+        int size = 0;
+        for(int i=0; i<queues.length; i++)
+            size += sizes.get(i * STRIDE);
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for(int i=0; i<queues.length; i++) {
+            if(tops.get(i * STRIDE) != null) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,220 @@
+package linkedlist;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 배열을 원형으로 사용하는 덱(deque)
+ * 노드를 만들지 않고 원소를 배열에 바로 저장하므로 원소마다 객체를 할당하지 않는다.
+ * head는 첫 원소의 위치이고, 마지막 원소는 (head + currentSize - 1)의 위치에 있다.
+ * 위치는 배열의 끝을 넘어가면 앞으로 돌아온다.(배열의 크기가 2의 거듭제곱이므로 & mask로 계산한다.)
+ *
+ * 양쪽 끝에서 넣고 빼는 것은 head와 currentSize만 바꾸면 되므로 O(1)이다.
+ * 배열이 가득 차면 2배로 늘리며 원소를 0번부터 다시 배치한다.(평균 O(1))
+ * @param <E>
+ */
+public class CircularArrayDeque<E> implements ListI<E>, Iterable<E> {
+
+    static final int DEFAULT_SIZE = 16;
+
+    E[] array;
+    int head;
+    int currentSize;
+
+    public CircularArrayDeque() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * 생성자
+     * @param size - 처음 배열의 크기, 2의 거듭제곱으로 올림한다.
+     */
+    public CircularArrayDeque(int size) {
+        int capacity = size <= 2 ? 2 : Integer.highestOneBit(size - 1) << 1;
+        array = (E[])new Object[capacity];
+        head = 0;
+        currentSize = 0;
+    }
+
+    private int mask() {
+        return array.length - 1;
+    }
+
+    //i번째 원소의 배열 위치
+    private int position(int i) {
+        return (head + i) & mask();
+    }
+
+    /**
+     * 배열을 2배로 늘린다.
+     * 원형으로 나뉘어 있던 원소들(head ~ 배열 끝, 배열 처음 ~ 마지막 원소)을 새 배열의 0번부터 순서대로 복사한다.
+     */
+    private void grow() {
+        int oldLength = array.length;
+        if(oldLength == 1 << 30) throw new IllegalStateException("deque is too large");
+        E[] newArray = (E[])new Object[oldLength << 1];
+        int firstPart = oldLength - head;
+        System.arraycopy(array, head, newArray, 0, firstPart);
+        System.arraycopy(array, 0, newArray, firstPart, head);
+        array = newArray;
+        head = 0;
+    }
+
+    /**
+     * head를 한 칸 앞으로 옮기고 그 자리에 넣는다.
+     * 시간복잡도: O(1) (배열을 늘릴 때는 O(n))
+     * @param data
+     */
+    public void addFirst(E data) {
+        if(currentSize == array.length) grow();
+        head = (head - 1) & mask();
+        array[head] = data;
+        currentSize++;
+    }
+
+    /**
+     * 마지막 원소의 다음 자리에 넣는다.
+     * 시간복잡도: O(1) (배열을 늘릴 때는 O(n))
+     * @param data
+     */
+    public void addLast(E data) {
+        if(currentSize == array.length) grow();
+        array[position(currentSize)] = data;
+        currentSize++;
+    }
+
+    /**
+     * 첫 원소를 꺼낸다. 꺼낸 자리는 GC를 위해 null로 만든다.
+     * 시간복잡도: O(1)
+     * @return - 비어있으면 null
+     */
+    public E removeFirst() {
+        if(currentSize == 0) return null;
+        E tmp = array[head];
+        array[head] = null;
+        head = (head + 1) & mask();
+        currentSize--;
+        return tmp;
+    }
+
+    /**
+     * 마지막 원소를 꺼낸다.
+     * 시간복잡도: O(1)
+     * @return - 비어있으면 null
+     */
+    public E removeLast() {
+        if(currentSize == 0) return null;
+        int last = position(currentSize - 1);
+        E tmp = array[last];
+        array[last] = null;
+        currentSize--;
+        return tmp;
+    }
+
+    /**
+     * search와 같은 첫 원소를 삭제한다.
+     * 삭제한 자리부터 head와 끝 중 가까운 쪽의 원소들을 한 칸씩 당겨서 빈 자리를 메운다.
+     * 시간복잡도: O(n)
+     * @param search
+     * @return - 삭제된 데이터, 없으면 null
+     */
+    public E remove(E search) {
+        int i = indexOf(search);
+        if(i < 0) return null;
+        E tmp = array[position(i)];
+        removeAt(i);
+        return tmp;
+    }
+
+    void removeAt(int i) {
+        if(i < currentSize / 2) {
+            //앞쪽 원소들을 뒤로 한 칸씩 민다.
+            for(int k=i; k>0; k--)
+                array[position(k)] = array[position(k-1)];
+            array[head] = null;
+            head = (head + 1) & mask();
+        } else {
+            //뒤쪽 원소들을 앞으로 한 칸씩 당긴다.
+            for(int k=i; k<currentSize-1; k++)
+                array[position(k)] = array[position(k+1)];
+            array[position(currentSize - 1)] = null;
+        }
+        currentSize--;
+    }
+
+    private int indexOf(E search) {
+        for(int i=0; i<currentSize; i++) {
+            if(((Comparable<E>)array[position(i)]).compareTo(search) == 0) return i;
+        }
+        return -1;
+    }
+
+    public boolean contains(E search) {
+        return indexOf(search) >= 0;
+    }
+
+    public E peekFirst() {
+        if(currentSize == 0) return null;
+        return array[head];
+    }
+
+    public E peekLast() {
+        if(currentSize == 0) return null;
+        return array[position(currentSize - 1)];
+    }
+
+    /**
+     * i번째 원소 (배열이므로 O(1)에 찾을 수 있다.)
+     * @param i
+     * @return
+     */
+    public E get(int i) {
+        if(i < 0 || i >= currentSize) throw new IndexOutOfBoundsException(i);
+        return array[position(i)];
+    }
+
+    public int size() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(array, null);
+        head = 0;
+        currentSize = 0;
+    }
+
+    public Iterator<E> iterator() {
+        return new IteratorHelper();
+    }
+
+    class IteratorHelper implements Iterator<E> {
+        int index;
+        int lastReturned = -1;
+
+        public boolean hasNext() {
+            return index < currentSize;
+        }
+
+        public E next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            lastReturned = index;
+            return array[position(index++)];
+        }
+
+        /**
+         * 마지막으로 next()가 반환한 원소를 삭제한다.
+         * 삭제하면 뒤의 원소들이 한 칸씩 당겨지거나 head가 한 칸 뒤로 가므로 다음 원소의 번호가 1 줄어든다.
+         */
+        public void remove() {
+            if(lastReturned < 0) throw new IllegalStateException();
+            removeAt(lastReturned);
+            index = lastReturned;
+            lastReturned = -1;
+        }
+    }
+}
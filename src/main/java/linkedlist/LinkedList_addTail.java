@@ -2,6 +2,12 @@ package linkedlist;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -9,6 +15,10 @@ import java.util.NoSuchElementException;
  * 기본 구성 요소는 노드이다. head는 리스트의 첫 번째 노드를 가리킨다.
  * 힙에서는 연결리스트의 head만 알고있기 때문에 head.next, head.data등으로 노드의 내용을 찾는다.
  * 연결 리스트의 길이가 매우 길 경우 계속 head 뒤에 next를 붙일 수는 없다. 따라서 임시 포인터를 사용하여 탐색하는 방법을 사용한다.
+ *
+ * 각 노드가 다음 노드(next)와 이전 노드(prev)를 모두 가리키는 이중 연결 리스트이다.
+ * 마지막 노드의 이전 노드를 prev로 바로 찾을 수 있으므로 removeLast가 O(1)이고,
+ * 반복자의 remove()도 앞 노드를 다시 찾지 않고 O(1)에 노드를 떼어낸다.
  * @param <E>
  */
 public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
@@ -22,11 +32,14 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
         E data;
         //Node<E>변수를 선언해 다음 노드의 포인터를 저장할 수 있다.
         Node<E> next;
+        //이전 노드의 포인터
+        Node<E> prev;
 
-        //Node를 생성할때 제네릭 타입의 데이터를 받아서 저장하고 다음 포인터는 null을 가르킨다.
+        //Node를 생성할때 제네릭 타입의 데이터를 받아서 저장하고 다음, 이전 포인터는 null을 가르킨다.
         public Node(E data) {
             this.data =data;
             next=null;
+            prev=null;
         }
     }
 
@@ -35,9 +48,30 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
     }
 
 
+    /**
+     * 크기를 알고 있는 Spliterator
+     * 연결 리스트는 가운데 노드를 바로 찾을 수 없으므로 trySplit은 앞에서부터 노드 몇 개씩을 배열에 모아서 넘긴다.
+     * (한 번에 모으는 개수는 나눌 때마다 늘어난다.)
+     * @return
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), currentSize, Spliterator.ORDERED);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     class IteratorHelper implements Iterator<E> {
 
         Node<E> index;
+        //마지막으로 next()가 반환한 노드 (remove()로 삭제할 노드)
+        Node<E> lastReturned;
         public IteratorHelper() {
             index = head;
         }
@@ -47,9 +81,20 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
 
         public E next() {
             if(!hasNext()) throw new NoSuchElementException();
-            E val = index.data;
+            lastReturned = index;
             index = index.next;
-            return val;
+            return lastReturned.data;
+        }
+
+        /**
+         * 마지막으로 next()가 반환한 노드를 삭제한다.
+         * 노드가 prev를 가지고 있으므로 처음부터 다시 탐색하지 않는다.
+         * 시간복잡도: O(1)
+         */
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            unlink(lastReturned);
+            lastReturned = null;
         }
     }
 
@@ -102,6 +147,7 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
             return;
         }
         node.next=head;
+        head.prev=node;
         head=node;
         currentSize++;
     }
@@ -129,6 +175,7 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
             currentSize++;
             return;
         }
+        node.prev = tail;
         tail.next = node;
         tail = node;
         currentSize++;
@@ -153,7 +200,10 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
         if(head ==null ) return null;
         E tmp = head.data;
         if(head == tail) head = tail = null;
-        else head = head.next;
+        else {
+            head = head.next;
+            head.prev = null;
+        }
         currentSize--;
         return tmp;
     }
@@ -167,30 +217,40 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
      * End: 전제이다.
      * Middle: 불가능.
      *
-     * 경계조건을 처리해준 후 current포인터, previous포인터를 이용한다.
-     * current포인터가 tail포인터가 되기전까지 한 노드씩 포인터를 미뤄준다.
-     * -> current포인터가 tail포인터가 되며 반복문 마무리.
-     * previous포인터(끝에서 2번째노드)의 next를 null로 만들어준다.
+     * 경계조건을 처리해준 후 tail.prev(끝에서 2번째노드)를 새 tail로 만든다.
+     * 새 tail의 next를 null로 만들어준다.
      * -> 마지막 노드를 가리키는 포인터가 없으므로 GC된다.
-     * tail포인터를 previous포인터로 변환해주고 currentSize를 줄여준다.
-     * current포인터에 있는 삭제될 데이터를 반환해준다.
+     * currentSize를 줄여주고 삭제될 데이터를 반환해준다.
+     * 단일 연결 리스트에서는 끝에서 2번째 노드를 head부터 찾아야 해서 O(n)이었지만 prev 포인터로 바로 찾는다.
      * 시간복잡도: 0(1)
      * @return - 삭제된 데이터를 반환해준다.
      */
     public E removeLast() {
         if(head == null) return null;
         if(head == tail) return removeFirst();
-        Node<E> current = head, previous = null;
-        while(current != tail) {
-            previous=current;
-            current=current.next;
-        }
-        previous.next=null;
-        tail=previous;
+        Node<E> current = tail;
+        tail = current.prev;
+        tail.next = null;
         currentSize--;
         return current.data;
     }
 
+    /**
+     * unlink: 리스트 중간의 노드를 떼어낸다.
+     * 앞 노드의 next와 뒷 노드의 prev가 서로를 가리키게 만든다.
+     * 시간복잡도: 0(1)
+     * @param node - 리스트에 들어있는 노드
+     * @return - 삭제된 데이터를 반환해준다.
+     */
+    E unlink(Node<E> node) {
+        if(node == head) return removeFirst();
+        if(node == tail) return removeLast();
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        currentSize--;
+        return node.data;
+    }
+
     /**
      * remove: 자료구조의 노드에 포함된 데이터를 찾아 해당 데이터를 갖고있는 노드를 삭제한다.
      *
@@ -200,26 +260,19 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
      * End: current == tail로 예외처리 -> 위에서 생성한 removeLast() 메서드 활용
      * Middle: 로직의대상
      *
-     * 경계조건을 처리해준 후 current포인터, previous포인터를 이용한다.
+     * 경계조건을 처리해준 후 current포인터를 이용한다.
      * current포인터가 null이 아닌동안(null이 된다는건 current포인터가 마지막 노드를 포인트하기 전까지를 의미함)
      * search 데이터와 current포인터의 데이터를 비교하여 같을경우를 찾아낸다.
-     * 두 데이터가 같을 경우 currentSize -1, previous포인터의 next를 current포인터의 next로 포인트하여
-     * current포인터가 리스트에서 빠지게 만들어준다.
+     * 두 데이터가 같을 경우 unlink로 current포인터가 리스트에서 빠지게 만들어준다.
      * 그 후 current포인터의 데이터를 반환해준다.
      * 시간복잡도: 0(n)
      * @return - 삭제된 데이터를 반환해준다.
      */
     public E remove(E search) {
-        Node<E> current = head, previous = null;
+        Node<E> current = head;
         while(current != null) {
-            if(((Comparable<E>)current.data).compareTo(search)==0){
-                if(current == head) return removeFirst();
-                if(current == tail) return removeLast();
-                currentSize--;
-                previous.next=current.next;
-                return current.data;
-            }
-            previous=current;
+            if(((Comparable<E>)current.data).compareTo(search)==0)
+                return unlink(current);
             current=current.next;
         }
         return null;
@@ -292,5 +345,146 @@ public class LinkedList_addTail<E> implements ListI<E>, Iterable<E> {
         return tail.data;
     }
 
+    /**
+     * addAll: 여러 데이터를 한 번에 끝에 추가한다.
+     *
+     * 새 노드들을 먼저 따로 연결해 두고 마지막에 tail 뒤에 한 번만 붙인다.
+     * currentSize도 마지막에 한 번만 더한다.
+     * items가 이 리스트 자신이어도 새 노드를 붙이기 전에 순회가 끝나므로 원소가 두 배가 된다.
+     * 시간복잡도: 0(k) (k는 추가할 데이터의 수)
+     * @param items
+     */
+    public void addAll(Iterable<? extends E> items) {
+        Node<E> first = null, last = null;
+        int count = 0;
+        for(E item : items) {
+            Node<E> node = new Node<>(item);
+            if(first == null) first = node;
+            else {
+                last.next = node;
+                node.prev = last;
+            }
+            last = node;
+            count++;
+        }
+        linkLast(first, last, count);
+    }
+
+    public void addAll(E[] items) {
+        Node<E> first = null, last = null;
+        for(E item : items) {
+            Node<E> node = new Node<>(item);
+            if(first == null) first = node;
+            else {
+                last.next = node;
+                node.prev = last;
+            }
+            last = node;
+        }
+        linkLast(first, last, items.length);
+    }
+
+    //first ~ last로 연결된 노드들을 tail 뒤에 붙인다.
+    private void linkLast(Node<E> first, Node<E> last, int count) {
+        if(first == null) return;
+        if(head == null) head = first;
+        else {
+            tail.next = first;
+            first.prev = tail;
+        }
+        tail = last;
+        currentSize += count;
+    }
+
+    /**
+     * removeFirst: 앞에서부터 최대 n개의 노드를 한 번에 떼어내고 데이터를 consumer에 넘긴다.
+     *
+     * 잘라낼 위치까지 따라간 뒤 head를 한 번만 옮긴다.
+     * consumer를 호출하기 전에 리스트에서 먼저 떼어내므로 consumer가 예외를 던지거나 이 리스트에 다시 추가해도 리스트가 깨지지 않는다.
+     * 시간복잡도: 0(n)
+     * @param n
+     * @param consumer
+     * @return - 꺼낸 데이터의 수
+     */
+    public int removeFirst(int n, Consumer<? super E> consumer) {
+        Node<E> first = head, current = head;
+        int count = 0;
+        while(count < n && current != null) {
+            current = current.next;
+            count++;
+        }
+        if(count == 0) return 0;
+        if(current == null) head = tail = null;
+        else {
+            current.prev.next = null;
+            current.prev = null;
+            head = current;
+        }
+        currentSize -= count;
+        for(Node<E> node = first; node != null; node = node.next)
+            consumer.accept(node.data);
+        return count;
+    }
+
+    /**
+     * removeIf: filter를 만족하는 노드를 한 번 순회하며 모두 떼어낸다.
+     * 시간복잡도: 0(n)
+     * @param filter
+     * @return - 삭제한 노드가 있으면 true
+     */
+    public boolean removeIf(Predicate<? super E> filter) {
+        boolean removed = false;
+        Node<E> current = head;
+        while(current != null) {
+            Node<E> next = current.next;
+            if(filter.test(current.data)) {
+                unlink(current);
+                removed = true;
+            }
+            current = next;
+        }
+        return removed;
+    }
+
+    /**
+     * concat: other의 모든 노드를 이 리스트의 끝에 옮긴다.
+     * 노드를 복사하지 않고 tail과 other.head만 연결하므로 other의 길이와 상관없이 O(1)이다.
+     * other는 빈 리스트가 된다.
+     * 시간복잡도: 0(1)
+     * @param other
+     */
+    public void concat(LinkedList_addTail<E> other) {
+        if(other == this || other.head == null) return;
+        linkLast(other.head, other.tail, other.currentSize);
+        other.head = other.tail = null;
+        other.currentSize = 0;
+    }
+
+    /**
+     * spliceFirst: other의 모든 노드를 이 리스트의 앞에 옮긴다.
+     * other는 빈 리스트가 된다.
+     * 시간복잡도: 0(1)
+     * @param other
+     */
+    public void spliceFirst(LinkedList_addTail<E> other) {
+        if(other == this || other.head == null) return;
+        if(head == null) tail = other.tail;
+        else {
+            other.tail.next = head;
+            head.prev = other.tail;
+        }
+        head = other.head;
+        currentSize += other.currentSize;
+        other.head = other.tail = null;
+        other.currentSize = 0;
+    }
+
+    public int size() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
 
 }
@@ -1,6 +1,10 @@
 package linkedlist;
 
-public interface ListI<E> {
+import java.util.ArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public interface ListI<E> extends QueueI<E> {
     public void addFirst(E data);
     public void addLast(E data);
     public E removeFirst();
@@ -9,4 +13,59 @@ public interface ListI<E> {
     public boolean contains(E search);
     public E peekFirst();
     public E peekLast();
+
+    /**
+     * 모든 원소를 순서대로 끝에 추가한다.
+     * 기본 구현은 addLast를 반복하고, 구현 클래스에서 한 번에 연결하도록 바꿀 수 있다.
+     * items가 이 리스트 자신이면 추가하면서 순회가 끝나지 않으므로 먼저 복사한다.
+     * @param items
+     */
+    public default void addAll(Iterable<? extends E> items) {
+        if(items == this) {
+            ArrayList<E> copy = new ArrayList<>();
+            items.forEach(copy::add);
+            items = copy;
+        }
+        for(E item : items)
+            addLast(item);
+    }
+
+    public default void addAll(E[] items) {
+        for(E item : items)
+            addLast(item);
+    }
+
+    /**
+     * 앞에서부터 최대 n개의 원소를 꺼내서 consumer에 넘긴다.
+     * @param n
+     * @param consumer
+     * @return - 꺼낸 원소의 수
+     */
+    public default int removeFirst(int n, Consumer<? super E> consumer) {
+        int count = 0;
+        while(count < n && peekFirst() != null) {
+            consumer.accept(removeFirst());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * filter를 만족하는 원소를 모두 삭제한다.
+     * 기본 구현은 모든 원소를 꺼낸 뒤 남길 원소만 다시 넣는다.
+     * @param filter
+     * @return - 삭제한 원소가 있으면 true
+     */
+    public default boolean removeIf(Predicate<? super E> filter) {
+        ArrayList<E> kept = new ArrayList<>();
+        boolean removed = false;
+        while(peekFirst() != null) {
+            E item = removeFirst();
+            if(filter.test(item)) removed = true;
+            else kept.add(item);
+        }
+        for(E item : kept)
+            addLast(item);
+        return removed;
+    }
 }
@@ -0,0 +1,185 @@
+package linkedlist;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * 락을 사용하지 않는 연결 리스트 큐 (Michael-Scott queue)
+ * 여러 스레드가 동시에 addLast, removeFirst를 해도 안전하다.(MPMC)
+ *
+ * head는 항상 더미 노드를 가리키고, 실제 첫 원소는 head.next에 있다.
+ * 1. addLast는 tail.next가 null일 때 CAS로 새 노드를 연결한 뒤 tail을 새 노드로 옮긴다.
+ *    다른 스레드가 노드를 연결만 하고 아직 tail을 옮기지 못했으면(tail.next != null) 대신 tail을 옮겨주고 다시 시도한다.
+ * 2. removeFirst는 CAS로 head를 head.next로 옮긴다. 옮겨진 노드가 새 더미 노드가 된다.
+ * 어떤 스레드가 중간에 멈추더라도 다른 스레드는 계속 진행할 수 있다.
+ *
+ * null은 비어있음을 나타내므로 원소로 넣을 수 없다.
+ * @param <E>
+ */
+public class LockFreeQueue<E> implements QueueI<E>, Iterable<E> {
+
+    static final class Node<E> {
+        volatile E data;
+        volatile Node<E> next;
+
+        Node(E data) {
+            this.data = data;
+        }
+    }
+
+    // 노드마다 AtomicReference를 만들지 않고 volatile 필드를 직접 CAS한다.
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+    private static final AtomicReferenceFieldUpdater<LockFreeQueue, Node> HEAD =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeQueue.class, Node.class, "head");
+    private static final AtomicReferenceFieldUpdater<LockFreeQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(LockFreeQueue.class, Node.class, "tail");
+
+    private volatile Node<E> head;
+    private volatile Node<E> tail;
+
+    public LockFreeQueue() {
+        Node<E> dummy = new Node<>(null);
+        head = dummy;
+        tail = dummy;
+    }
+
+    /**
+     * 원소를 큐의 끝에 넣는다.
+     * @param data
+     */
+    public void addLast(E data) {
+        if(data == null) throw new NullPointerException();
+        Node<E> node = new Node<>(data);
+        while(true) {
+            Node<E> t = tail;
+            Node<E> next = t.next;
+            if(t != tail) continue;
+            if(next == null) {
+                if(NEXT.compareAndSet(t, null, node)) {
+                    //실패해도 다른 스레드가 대신 옮겨준다.
+                    TAIL.compareAndSet(this, t, node);
+                    return;
+                }
+            } else {
+                TAIL.compareAndSet(this, t, next);
+            }
+        }
+    }
+
+    /**
+     * 첫 원소를 꺼낸다.
+     * @return - 비어있으면 null
+     */
+    public E removeFirst() {
+        while(true) {
+            Node<E> h = head;
+            Node<E> t = tail;
+            Node<E> next = h.next;
+            if(h != head) continue;
+            if(next == null) return null;
+            if(h == t) {
+                //tail이 뒤처져 있으면 먼저 옮긴다.(head가 tail을 앞지르지 않게 한다.)
+                TAIL.compareAndSet(this, t, next);
+                continue;
+            }
+            E data = next.data;
+            if(HEAD.compareAndSet(this, h, next)) {
+                //next는 이제 더미 노드이므로 원소를 잡고 있지 않게 한다.
+                next.data = null;
+                return data;
+            }
+        }
+    }
+
+    /**
+     * 첫 원소를 꺼내지 않고 확인한다.
+     * @return - 비어있으면 null
+     */
+    public E peekFirst() {
+        while(true) {
+            Node<E> h = head;
+            Node<E> next = h.next;
+            if(next == null) return null;
+            E data = next.data;
+            if(h == head && data != null) return data;
+        }
+    }
+
+    /**
+     * 최대 maxElements개의 원소를 꺼내서 consumer에 넘긴다.
+     * 소비자 스레드가 원소를 하나씩 꺼내는 대신 한 번에 모아서 처리할 때 사용한다.
+     * @param consumer
+     * @param maxElements
+     * @return - 꺼낸 원소의 수
+     */
+    public int drainTo(Consumer<? super E> consumer, int maxElements) {
+        int count = 0;
+        E data;
+        while(count < maxElements && (data = removeFirst()) != null) {
+            consumer.accept(data);
+            count++;
+        }
+        return count;
+    }
+
+    public int drainTo(Consumer<? super E> consumer) {
+        return drainTo(consumer, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return head.next == null;
+    }
+
+    /**
+     * 원소의 개수
+     * 노드를 끝까지 따라가며 세므로 O(n)이고, 다른 스레드가 사용하는 중이면 근사값이다.
+     * @return
+     */
+    public int size() {
+        int count = 0;
+        for(Node<E> node = head.next; node != null; node = node.next) {
+            if(node.data != null && ++count == Integer.MAX_VALUE) break;
+        }
+        return count;
+    }
+
+    /**
+     * 반복자는 생성 시점의 head부터 따라가므로 그 사이 꺼내진 원소가 나올 수도 있다.(weakly consistent)
+     * @return
+     */
+    public Iterator<E> iterator() {
+        return new IteratorHelper();
+    }
+
+    class IteratorHelper implements Iterator<E> {
+        Node<E> node;
+        E nextData;
+
+        IteratorHelper() {
+            node = head;
+            advance();
+        }
+
+        private void advance() {
+            nextData = null;
+            while(nextData == null && node != null) {
+                node = node.next;
+                if(node != null) nextData = node.data;
+            }
+        }
+
+        public boolean hasNext() {
+            return nextData != null;
+        }
+
+        public E next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            E data = nextData;
+            advance();
+            return data;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package linkedlist;
+
+/**
+ * 뒤에 넣고 앞에서 꺼내는 큐의 연산
+ * ListI에서 큐로 사용할 때 필요한 연산만 분리한 것으로, 여러 스레드가 함께 쓰는 큐(LockFreeQueue, RingBufferQueue)도 구현한다.
+ * @param <E>
+ */
+public interface QueueI<E> {
+    public void addLast(E data);
+    public E removeFirst();
+    public E peekFirst();
+}
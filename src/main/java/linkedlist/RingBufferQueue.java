@@ -0,0 +1,167 @@
+package linkedlist;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 크기가 정해진 배열을 원형으로 사용하는 락 없는 큐 (Vyukov의 bounded MPMC queue)
+ * LockFreeQueue와 달리 원소마다 노드를 만들지 않는다.
+ *
+ * 칸마다 sequence 번호를 두고, 넣는 위치(enqueue)와 꺼내는 위치(dequeue)를 계속 증가하는 long으로 센다.
+ * 1. pos 위치에 넣으려면 그 칸의 sequence가 pos여야 한다.(비어있는 칸) CAS로 enqueue를 pos+1로 옮겨 칸을 차지한 뒤
+ *    원소를 쓰고 sequence를 pos+1로 바꾼다.
+ * 2. pos 위치에서 꺼내려면 그 칸의 sequence가 pos+1이어야 한다.(원소가 쓰여진 칸) CAS로 dequeue를 옮긴 뒤
+ *    원소를 읽고 sequence를 pos+capacity로 바꿔서 한 바퀴 뒤에 넣는 스레드가 쓸 수 있게 한다.
+ * sequence를 바꾸는 것이 원소를 다른 스레드에게 넘기는 역할을 하므로 원소 배열 자체는 일반 배열이다.
+ *
+ * enqueue와 dequeue는 생산자, 소비자가 계속 CAS하는 값이므로 서로 다른 캐시라인에 놓이도록 띄워서 저장한다.
+ * (같은 캐시라인에 있으면 한쪽의 쓰기가 다른 쪽 코어의 캐시를 계속 무효화한다.(false sharing))
+ *
+ * null은 비어있음을 나타내므로 원소로 넣을 수 없다.
+ * @param <E>
+ */
+public class RingBufferQueue<E> implements QueueI<E> {
+    // long 16개 = 128바이트 (인접한 캐시라인을 함께 가져오는 prefetch까지 고려한 간격)
+    private static final int PADDING = 16;
+    private static final int ENQUEUE = PADDING;
+    private static final int DEQUEUE = 2 * PADDING;
+
+    final E[] buffer;
+    final AtomicLongArray sequences;
+    final AtomicLongArray positions;
+    final int mask;
+
+    /**
+     * 생성자
+     * @param capacity - 최대 원소 수, 2의 거듭제곱으로 올림한다.
+     */
+    public RingBufferQueue(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        buffer = (E[])new Object[size];
+        sequences = new AtomicLongArray(size);
+        for(int i=0; i<size; i++)
+            sequences.set(i, i);
+        positions = new AtomicLongArray(3 * PADDING);
+        mask = size - 1;
+    }
+
+    /**
+     * 원소를 넣는다.
+     * @param data
+     * @return - 가득 차서 넣지 못했으면 false
+     */
+    public boolean offer(E data) {
+        if(data == null) throw new NullPointerException();
+        long pos = positions.get(ENQUEUE);
+        int index;
+        while(true) {
+            index = (int)pos & mask;
+            long diff = sequences.get(index) - pos;
+            if(diff == 0) {
+                if(positions.compareAndSet(ENQUEUE, pos, pos + 1)) break;
+                pos = positions.get(ENQUEUE);
+            } else if(diff < 0) {
+                //한 바퀴 전의 원소를 아직 꺼내지 않았다.
+                return false;
+            } else {
+                pos = positions.get(ENQUEUE);
+            }
+        }
+        buffer[index] = data;
+        sequences.lazySet(index, pos + 1);
+        return true;
+    }
+
+    /**
+     * 원소를 넣는다.
+     * @param data
+     * @throws IllegalStateException - 가득 찬 경우
+     */
+    public void addLast(E data) {
+        if(!offer(data)) throw new IllegalStateException("queue is full");
+    }
+
+    /**
+     * 첫 원소를 꺼낸다.
+     * @return - 비어있으면 null
+     */
+    public E removeFirst() {
+        long pos = positions.get(DEQUEUE);
+        int index;
+        while(true) {
+            index = (int)pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if(diff == 0) {
+                if(positions.compareAndSet(DEQUEUE, pos, pos + 1)) break;
+                pos = positions.get(DEQUEUE);
+            } else if(diff < 0) {
+                //아직 원소가 쓰여지지 않았다.
+                return null;
+            } else {
+                pos = positions.get(DEQUEUE);
+            }
+        }
+        E data = buffer[index];
+        buffer[index] = null;
+        sequences.lazySet(index, pos + mask + 1);
+        return data;
+    }
+
+    /**
+     * 첫 원소를 꺼내지 않고 확인한다.
+     * @return - 비어있으면 null
+     */
+    public E peekFirst() {
+        while(true) {
+            long pos = positions.get(DEQUEUE);
+            int index = (int)pos & mask;
+            long diff = sequences.get(index) - (pos + 1);
+            if(diff < 0) return null;
+            E data = buffer[index];
+            //읽는 동안 다른 스레드가 꺼내지 않았으면 올바른 값이다.
+            if(diff == 0 && data != null && positions.get(DEQUEUE) == pos) return data;
+        }
+    }
+
+    /**
+     * 최대 maxElements개의 원소를 꺼내서 consumer에 넘긴다.
+     * @param consumer
+     * @param maxElements
+     * @return - 꺼낸 원소의 수
+     */
+    public int drainTo(Consumer<? super E> consumer, int maxElements) {
+        int count = 0;
+        E data;
+        while(count < maxElements && (data = removeFirst()) != null) {
+            consumer.accept(data);
+            count++;
+        }
+        return count;
+    }
+
+    public int drainTo(Consumer<? super E> consumer) {
+        return drainTo(consumer, Integer.MAX_VALUE);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * 원소의 개수
+     * 다른 스레드가 사용하는 중이면 근사값이다.
+     * @return
+     */
+    public int size() {
+        while(true) {
+            long dequeue = positions.get(DEQUEUE);
+            long enqueue = positions.get(ENQUEUE);
+            if(dequeue == positions.get(DEQUEUE))
+                return (int)Math.max(0, Math.min(enqueue - dequeue, buffer.length));
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
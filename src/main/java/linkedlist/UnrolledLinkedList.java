@@ -0,0 +1,260 @@
+package linkedlist;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 노드 하나에 원소 여러 개를 배열로 저장하는 연결 리스트 (unrolled linked list)
+ * 원소마다 노드를 만드는 LinkedList_addTail은 원소 하나에 노드 하나(객체 헤더 + data + next + prev)가 필요하고,
+ * 탐색할 때마다 흩어져 있는 노드를 따라가야 한다.
+ * 노드에 원소를 capacity개씩 모아두면 객체 수가 1/capacity로 줄고, 한 노드 안에서는 배열을 차례로 읽으므로 캐시를 잘 활용한다.
+ *
+ * 노드의 원소는 elements[start] ~ elements[end-1]에 있다.
+ * 1. addLast는 tail의 end 뒤에 넣고, 자리가 없으면 새 노드를 뒤에 연결한다.
+ * 2. addFirst는 head의 start 앞에 넣고, 자리가 없으면 새 노드를 앞에 연결해서 배열의 끝부터 채운다.
+ * 3. removeFirst, removeLast는 start, end만 옮기고 노드가 비면 떼어낸다.
+ * 따라서 양쪽 끝의 연산은 모두 O(1)이다.
+ *
+ * 중간의 원소를 삭제한 뒤 노드가 반 이하로 비면 다음 노드와 합칠 수 있는지 확인해서 노드가 너무 성기지 않게 한다.
+ * @param <E>
+ */
+public class UnrolledLinkedList<E> implements ListI<E>, Iterable<E> {
+
+    static final int DEFAULT_NODE_CAPACITY = 32;
+
+    class Node<E> {
+        final E[] elements;
+        int start;
+        int end;
+        Node<E> next;
+        Node<E> prev;
+
+        Node(int start) {
+            elements = (E[])new Object[nodeCapacity];
+            this.start = start;
+            this.end = start;
+        }
+
+        int size() {
+            return end - start;
+        }
+    }
+
+    private Node<E> head;
+    private Node<E> tail;
+    private int currentSize;
+    final int nodeCapacity;
+
+    public UnrolledLinkedList() {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * 생성자
+     * @param nodeCapacity - 노드 하나에 저장할 원소의 수
+     */
+    public UnrolledLinkedList(int nodeCapacity) {
+        if(nodeCapacity < 2) throw new IllegalArgumentException("nodeCapacity must be at least 2");
+        this.nodeCapacity = nodeCapacity;
+        head = null;
+        tail = null;
+        currentSize = 0;
+    }
+
+    /**
+     * head의 start 앞에 넣는다. 자리가 없으면 배열의 끝부터 채우는 새 노드를 앞에 연결한다.
+     * 시간복잡도: O(1)
+     * @param data
+     */
+    public void addFirst(E data) {
+        if(head == null || head.start == 0) {
+            Node<E> node = new Node<>(nodeCapacity);
+            node.next = head;
+            if(head == null) tail = node;
+            else head.prev = node;
+            head = node;
+        }
+        head.elements[--head.start] = data;
+        currentSize++;
+    }
+
+    /**
+     * tail의 end 뒤에 넣는다. 자리가 없으면 새 노드를 뒤에 연결한다.
+     * 시간복잡도: O(1)
+     * @param data
+     */
+    public void addLast(E data) {
+        if(tail == null || tail.end == nodeCapacity) {
+            Node<E> node = new Node<>(0);
+            node.prev = tail;
+            if(tail == null) head = node;
+            else tail.next = node;
+            tail = node;
+        }
+        tail.elements[tail.end++] = data;
+        currentSize++;
+    }
+
+    /**
+     * 시간복잡도: O(1)
+     * @return - 삭제된 데이터, 비어있으면 null
+     */
+    public E removeFirst() {
+        if(head == null) return null;
+        Node<E> node = head;
+        E tmp = node.elements[node.start];
+        node.elements[node.start++] = null;
+        currentSize--;
+        if(node.start == node.end) unlink(node);
+        return tmp;
+    }
+
+    /**
+     * 시간복잡도: O(1)
+     * @return - 삭제된 데이터, 비어있으면 null
+     */
+    public E removeLast() {
+        if(tail == null) return null;
+        Node<E> node = tail;
+        E tmp = node.elements[--node.end];
+        node.elements[node.end] = null;
+        currentSize--;
+        if(node.start == node.end) unlink(node);
+        return tmp;
+    }
+
+    private void unlink(Node<E> node) {
+        if(node.prev == null) head = node.next;
+        else node.prev.next = node.next;
+        if(node.next == null) tail = node.prev;
+        else node.next.prev = node.prev;
+    }
+
+    /**
+     * search와 같은 첫 원소를 삭제한다.
+     * 노드 안에서 뒤쪽 원소들을 한 칸씩 당기고, 노드가 반 이하로 비면 다음 노드와 합친다.
+     * 시간복잡도: O(n)
+     * @param search
+     * @return - 삭제된 데이터, 없으면 null
+     */
+    public E remove(E search) {
+        for(Node<E> node = head; node != null; node = node.next) {
+            for(int i=node.start; i<node.end; i++) {
+                if(((Comparable<E>)node.elements[i]).compareTo(search) == 0) {
+                    E tmp = node.elements[i];
+                    removeAt(node, i);
+                    if(node.start != node.end && node.size() <= nodeCapacity / 2)
+                        mergeNext(node);
+                    return tmp;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * node의 i번째 칸을 삭제하고 뒤의 원소들을 한 칸씩 당긴다. 노드가 비면 떼어낸다.
+     */
+    void removeAt(Node<E> node, int i) {
+        System.arraycopy(node.elements, i + 1, node.elements, i, node.end - i - 1);
+        node.elements[--node.end] = null;
+        currentSize--;
+        if(node.start == node.end) unlink(node);
+    }
+
+    /**
+     * 다음 노드의 원소가 모두 들어갈 수 있으면 node로 옮기고 다음 노드를 떼어낸다.
+     * 뒤에 자리가 모자라면 node의 원소를 먼저 배열의 앞으로 옮긴다.
+     */
+    private void mergeNext(Node<E> node) {
+        Node<E> next = node.next;
+        if(next == null || node.size() + next.size() > nodeCapacity) return;
+        if(node.end + next.size() > nodeCapacity) {
+            int size = node.size();
+            System.arraycopy(node.elements, node.start, node.elements, 0, size);
+            Arrays.fill(node.elements, Math.max(size, node.start), node.end, null);
+            node.start = 0;
+            node.end = size;
+        }
+        System.arraycopy(next.elements, next.start, node.elements, node.end, next.size());
+        node.end += next.size();
+        unlink(next);
+    }
+
+    public boolean contains(E search) {
+        for(Node<E> node = head; node != null; node = node.next) {
+            for(int i=node.start; i<node.end; i++) {
+                if(((Comparable<E>)node.elements[i]).compareTo(search) == 0) return true;
+            }
+        }
+        return false;
+    }
+
+    public E peekFirst() {
+        if(head == null) return null;
+        return head.elements[head.start];
+    }
+
+    public E peekLast() {
+        if(tail == null) return null;
+        return tail.elements[tail.end - 1];
+    }
+
+    public int size() {
+        return currentSize;
+    }
+
+    public boolean isEmpty() {
+        return currentSize == 0;
+    }
+
+    public void clear() {
+        head = null;
+        tail = null;
+        currentSize = 0;
+    }
+
+    public Iterator<E> iterator() {
+        return new IteratorHelper();
+    }
+
+    class IteratorHelper implements Iterator<E> {
+        Node<E> node;
+        int index;
+        Node<E> lastNode;
+        int lastIndex;
+
+        IteratorHelper() {
+            node = head;
+            if(node != null) index = node.start;
+        }
+
+        public boolean hasNext() {
+            while(node != null && index >= node.end) {
+                node = node.next;
+                if(node != null) index = node.start;
+            }
+            return node != null;
+        }
+
+        public E next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            lastNode = node;
+            lastIndex = index;
+            return node.elements[index++];
+        }
+
+        /**
+         * 마지막으로 next()가 반환한 원소를 삭제한다.
+         * 뒤의 원소가 한 칸씩 당겨지므로 다음에 읽을 위치도 한 칸 당긴다.
+         * (반복 중에는 노드를 합치지 않는다.)
+         */
+        public void remove() {
+            if(lastNode == null) throw new IllegalStateException();
+            removeAt(lastNode, lastIndex);
+            if(node == lastNode) index = lastIndex;
+            lastNode = null;
+        }
+    }
+}
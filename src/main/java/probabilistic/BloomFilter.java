@@ -0,0 +1,184 @@
+package probabilistic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 블룸 필터
+ * "이 원소를 본 적이 있는가"를 원소를 저장하지 않고 비트 배열로 답한다.
+ * 없다고 답하면 확실히 없고, 있다고 답하면 설정한 확률(fpp)만큼 틀릴 수 있다.(false positive)
+ *
+ * 원소를 64비트로 해시한 뒤 아래 32비트(h1)와 위 32비트(h2)로 k개의 위치 h1 + i*h2 (i = 0 ~ k-1)를 만든다.(Kirsch-Mitzenmacher)
+ * 해시를 k번 계산하지 않아도 false positive 확률이 k개의 독립된 해시와 거의 같다.
+ *
+ * 원소 n개, fpp p일 때 비트 수 m = -n ln p / (ln 2)^2, 해시 수 k = m/n ln 2 가 최적이다.
+ * 예) n = 1억, p = 1%이면 원소당 약 9.6비트(약 120MB)와 k = 7이다. 키의 크기와 상관없다.
+ *
+ * 스레드에 안전하지 않다. 스레드나 샤드마다 같은 크기와 seed로 만든 뒤 merge로 합친다.
+ */
+public class BloomFilter {
+    static final int MAGIC = 0x424C4F4D;   // "BLOM"
+    static final byte VERSION = 1;
+
+    final long[] bits;
+    final long numBits;
+    final int numHashes;
+    final long seed;
+
+    /**
+     * @param expectedInsertions - 넣을 원소 수
+     * @param fpp - 원하는 false positive 확률 (0 < fpp < 1)
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        this(expectedInsertions, fpp, 0);
+    }
+
+    /**
+     * @param expectedInsertions
+     * @param fpp
+     * @param seed - merge할 필터끼리는 같아야 한다.
+     */
+    public BloomFilter(long expectedInsertions, double fpp, long seed) {
+        this(optimalNumBits(expectedInsertions, fpp), optimalNumHashes(expectedInsertions, optimalNumBits(expectedInsertions, fpp)), seed);
+    }
+
+    /**
+     * 비트 수와 해시 수를 직접 정하는 생성자
+     * @param numBits - 64의 배수로 올린다.
+     * @param numHashes
+     * @param seed
+     */
+    public BloomFilter(long numBits, int numHashes, long seed) {
+        if(numBits <= 0) throw new IllegalArgumentException("numBits must be positive: " + numBits);
+        if(numHashes <= 0 || numHashes > 255) throw new IllegalArgumentException("numHashes out of range: " + numHashes);
+        long words = (numBits + 63) >>> 6;
+        if(words > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("numBits too large: " + numBits);
+        this.bits = new long[(int)words];
+        this.numBits = words << 6;
+        this.numHashes = numHashes;
+        this.seed = seed;
+    }
+
+    static long optimalNumBits(long n, double fpp) {
+        if(n <= 0) throw new IllegalArgumentException("expectedInsertions must be positive: " + n);
+        if(!(fpp > 0 && fpp < 1)) throw new IllegalArgumentException("fpp must be in (0, 1): " + fpp);
+        return Math.max(64, (long)Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+    }
+
+    static int optimalNumHashes(long n, long numBits) {
+        return (int)Math.max(1, Math.min(255, Math.round((double)numBits / n * Math.log(2))));
+    }
+
+    /**
+     * 이미 64비트로 해시한 값을 넣는다.
+     * @param hash
+     * @return - 비트가 하나라도 바뀌었으면 true (false면 이미 있었을 수 있다)
+     */
+    public boolean addHash(long hash) {
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32);
+        boolean changed = false;
+        for(int i=0; i<numHashes; i++) {
+            long index = ((h1 + (long)i * h2) & Long.MAX_VALUE) % numBits;
+            int word = (int)(index >>> 6);
+            long mask = 1L << index;
+            if((bits[word] & mask) == 0) {
+                bits[word] |= mask;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    public boolean mightContainHash(long hash) {
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32);
+        for(int i=0; i<numHashes; i++) {
+            long index = ((h1 + (long)i * h2) & Long.MAX_VALUE) % numBits;
+            if((bits[(int)(index >>> 6)] & (1L << index)) == 0) return false;
+        }
+        return true;
+    }
+
+    public boolean add(byte[] data) {
+        return addHash(Hashing.hash(data, seed));
+    }
+
+    public boolean add(String value) {
+        return addHash(Hashing.hash(value, seed));
+    }
+
+    public boolean add(long value) {
+        return addHash(Hashing.hash(value, seed));
+    }
+
+    public boolean mightContain(byte[] data) {
+        return mightContainHash(Hashing.hash(data, seed));
+    }
+
+    public boolean mightContain(String value) {
+        return mightContainHash(Hashing.hash(value, seed));
+    }
+
+    public boolean mightContain(long value) {
+        return mightContainHash(Hashing.hash(value, seed));
+    }
+
+    /**
+     * other의 원소를 모두 이 필터에 합친다.(비트 OR)
+     * 합친 결과는 두 원소 집합을 한 필터에 넣은 것과 같다.
+     * @param other - 비트 수, 해시 수, seed가 같아야 한다.
+     */
+    public void merge(BloomFilter other) {
+        if(other.numBits != numBits || other.numHashes != numHashes || other.seed != seed)
+            throw new IllegalArgumentException("incompatible bloom filters");
+        for(int i=0; i<bits.length; i++)
+            bits[i] |= other.bits[i];
+    }
+
+    /**
+     * 1인 비트의 비율로 계산한 지금의 false positive 확률
+     * @return
+     */
+    public double expectedFpp() {
+        return Math.pow((double)bitCount() / numBits, numHashes);
+    }
+
+    public long bitCount() {
+        long count = 0;
+        for(long word : bits)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    public long numBits() {
+        return numBits;
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    /**
+     * [magic int][version byte][numBits long][numHashes int][seed long][bits long...]
+     * @return
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(25 + bits.length * 8);
+        buffer.putInt(MAGIC).put(VERSION).putLong(numBits).putInt(numHashes).putLong(seed);
+        buffer.asLongBuffer().put(bits);
+        return buffer.array();
+    }
+
+    public static BloomFilter fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = Hashing.open(bytes, MAGIC, VERSION);
+        if(buffer.remaining() < 20) throw new IllegalArgumentException("corrupt data: truncated header");
+        long numBits = buffer.getLong();
+        int numHashes = buffer.getInt();
+        long seed = buffer.getLong();
+        if(numBits <= 0 || (numBits & 63) != 0) throw new IllegalArgumentException("corrupt data: numBits " + numBits);
+        Hashing.expect(buffer, numBits >>> 3);
+        BloomFilter filter = new BloomFilter(numBits, numHashes, seed);
+        buffer.asLongBuffer().get(filter.bits);
+        return filter;
+    }
+}
@@ -0,0 +1,170 @@
+package probabilistic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Count-Min sketch
+ * "이 원소가 몇 번 나왔는가"를 원소를 저장하지 않고 depth x width 크기의 카운터 표로 근사한다.
+ * 각 행(row)마다 다른 위치의 카운터를 올리고, 조회할 때는 행들의 카운터 중 가장 작은 값을 반환한다.
+ * 다른 원소와 카운터를 같이 쓰면 값이 커질 뿐 작아지지는 않으므로, 추정값은 항상 실제 횟수 이상이다.
+ *
+ * width = e / epsilon, depth = ln(1 / delta)로 정하면
+ * 추정값이 실제 횟수 + epsilon * (전체 횟수)를 넘을 확률이 delta 이하이다.
+ * 행마다의 위치는 64비트 해시의 두 절반으로 h1 + i*h2 를 만들어서 구한다.
+ *
+ * hash.FrequencySketch는 캐시의 승인 정책을 위한 4비트 카운터이고, 이 클래스는 정확한 횟수를 다루는 long 카운터이다.
+ * 스레드에 안전하지 않다. 스레드나 샤드마다 같은 크기와 seed로 만든 뒤 merge로 합친다.
+ */
+public class CountMinSketch {
+    static final int MAGIC = 0x434D534B;   // "CMSK"
+    static final byte VERSION = 1;
+
+    final long[] table;
+    final int depth;
+    final int width;
+    final long seed;
+    long totalCount;
+
+    /**
+     * @param epsilon - 허용하는 오차 (전체 횟수에 대한 비율)
+     * @param delta - 오차를 넘을 확률
+     */
+    public CountMinSketch(double epsilon, double delta) {
+        this(epsilon, delta, 0);
+    }
+
+    public CountMinSketch(double epsilon, double delta, long seed) {
+        this(depthFor(delta), widthFor(epsilon), seed);
+    }
+
+    /**
+     * @param depth - 행의 수
+     * @param width - 행 하나의 카운터 수. 2의 거듭제곱으로 올린다.
+     * @param seed - merge할 sketch끼리는 같아야 한다.
+     */
+    public CountMinSketch(int depth, int width, long seed) {
+        if(depth <= 0 || depth > 64) throw new IllegalArgumentException("depth out of range: " + depth);
+        if(width <= 0 || width > (1 << 30)) throw new IllegalArgumentException("width out of range: " + width);
+        width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        if((long)depth * width > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("sketch too large");
+        this.depth = depth;
+        this.width = width;
+        this.seed = seed;
+        this.table = new long[depth * width];
+    }
+
+    private static int depthFor(double delta) {
+        if(!(delta > 0 && delta < 1)) throw new IllegalArgumentException("delta must be in (0, 1): " + delta);
+        return (int)Math.ceil(Math.log(1 / delta));
+    }
+
+    private static int widthFor(double epsilon) {
+        if(!(epsilon > 0 && epsilon < 1)) throw new IllegalArgumentException("epsilon must be in (0, 1): " + epsilon);
+        return (int)Math.min(1 << 30, Math.ceil(Math.E / epsilon));
+    }
+
+    /**
+     * @param hash - 64비트 해시값
+     * @param count - 0 이상
+     */
+    public void addHash(long hash, long count) {
+        if(count < 0) throw new IllegalArgumentException("count must not be negative: " + count);
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32) | 1;
+        for(int i=0; i<depth; i++)
+            table[i * width + ((h1 + i * h2) & (width - 1))] += count;
+        totalCount += count;
+    }
+
+    /**
+     * @param hash
+     * @return - 실제 횟수 이상인 추정값
+     */
+    public long estimateHash(long hash) {
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for(int i=0; i<depth; i++)
+            min = Math.min(min, table[i * width + ((h1 + i * h2) & (width - 1))]);
+        return min;
+    }
+
+    public void add(byte[] data, long count) {
+        addHash(Hashing.hash(data, seed), count);
+    }
+
+    public void add(String value, long count) {
+        addHash(Hashing.hash(value, seed), count);
+    }
+
+    public void add(long value, long count) {
+        addHash(Hashing.hash(value, seed), count);
+    }
+
+    public long estimate(byte[] data) {
+        return estimateHash(Hashing.hash(data, seed));
+    }
+
+    public long estimate(String value) {
+        return estimateHash(Hashing.hash(value, seed));
+    }
+
+    public long estimate(long value) {
+        return estimateHash(Hashing.hash(value, seed));
+    }
+
+    /**
+     * other의 횟수를 이 sketch에 더한다.(카운터끼리 더하기)
+     * @param other - depth, width, seed가 같아야 한다.
+     */
+    public void merge(CountMinSketch other) {
+        if(other.depth != depth || other.width != width || other.seed != seed)
+            throw new IllegalArgumentException("incompatible count-min sketches");
+        for(int i=0; i<table.length; i++)
+            table[i] += other.table[i];
+        totalCount += other.totalCount;
+    }
+
+    /**
+     * 지금까지 더한 횟수의 합
+     * @return
+     */
+    public long totalCount() {
+        return totalCount;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    /**
+     * [magic int][version byte][depth int][width int][seed long][totalCount long][table long...]
+     * @return
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(29 + table.length * 8);
+        buffer.putInt(MAGIC).put(VERSION).putInt(depth).putInt(width).putLong(seed).putLong(totalCount);
+        buffer.asLongBuffer().put(table);
+        return buffer.array();
+    }
+
+    public static CountMinSketch fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = Hashing.open(bytes, MAGIC, VERSION);
+        if(buffer.remaining() < 24) throw new IllegalArgumentException("corrupt data: truncated header");
+        int depth = buffer.getInt();
+        int width = buffer.getInt();
+        long seed = buffer.getLong();
+        long totalCount = buffer.getLong();
+        if(depth <= 0 || width <= 0 || Integer.bitCount(width) != 1)
+            throw new IllegalArgumentException("corrupt data: depth " + depth + ", width " + width);
+        Hashing.expect(buffer, (long)depth * width * 8);
+        CountMinSketch sketch = new CountMinSketch(depth, width, seed);
+        buffer.asLongBuffer().get(sketch.table);
+        sketch.totalCount = totalCount;
+        return sketch;
+    }
+}
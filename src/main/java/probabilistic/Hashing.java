@@ -0,0 +1,57 @@
+package probabilistic;
+
+import hash.HashTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 이 패키지의 자료구조가 공통으로 사용하는 64비트 해시와 직렬화 도구
+ * 원소는 hash.HashTable의 xxHash64(byte[], String)와 hash64(long)로 64비트 값이 되고,
+ * 자료구조는 이 값의 비트를 나눠서 여러 개의 인덱스를 만든다.
+ * 같은 seed를 사용해야 다른 스레드나 샤드에서 만든 자료구조를 merge할 수 있다.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    static long hash(byte[] data, long seed) {
+        return HashTable.xxHash64(data, seed);
+    }
+
+    static long hash(String value, long seed) {
+        return HashTable.xxHash64(value.getBytes(StandardCharsets.UTF_8), seed);
+    }
+
+    static long hash(long value, long seed) {
+        return HashTable.hash64(value, seed);
+    }
+
+    /**
+     * toByteArray로 만든 바이트 배열의 처음 5바이트(magic int, version byte)를 확인한다.
+     * @param bytes
+     * @param magic
+     * @param version
+     * @return - 헤더 다음부터 읽는 ByteBuffer
+     */
+    static ByteBuffer open(byte[] bytes, int magic, byte version) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if(buffer.remaining() < 5 || buffer.getInt() != magic)
+            throw new IllegalArgumentException("not a serialized " + Integer.toHexString(magic));
+        byte actual = buffer.get();
+        if(actual != version)
+            throw new IllegalArgumentException("unsupported version: " + actual);
+        return buffer;
+    }
+
+    /**
+     * 남은 바이트 수가 length인지 확인한다. 잘린 배열이나 길이 필드가 손상된 배열을 걸러낸다.
+     * @param buffer
+     * @param length
+     */
+    static void expect(ByteBuffer buffer, long length) {
+        if(buffer.remaining() != length)
+            throw new IllegalArgumentException("corrupt data: expected " + length + " bytes, found " + buffer.remaining());
+    }
+}
@@ -0,0 +1,155 @@
+package probabilistic;
+
+import java.nio.ByteBuffer;
+
+/**
+ * HyperLogLog
+ * 서로 다른 원소의 수(cardinality)를 2^p 바이트로 추정한다. 상대 오차는 약 1.04 / sqrt(2^p)이다.
+ * 예) p = 14이면 16KB로 오차 약 0.8%이고, 원소가 수십억 개여도 크기가 같다.
+ *
+ * 64비트 해시의 위 p비트로 레지스터를 고르고, 나머지 비트에서 처음 1이 나오는 위치(앞의 0의 수 + 1)를 레지스터에 최대값으로 기록한다.
+ * 해시가 고르면 0이 k개 이어질 확률은 1/2^(k+1)이므로, 레지스터 값들의 조화 평균으로 원소 수를 추정한다.
+ * 추정값이 작을 때(2.5 * 2^p 이하)는 빈 레지스터의 비율로 계산하는 linear counting을 사용한다.
+ * 64비트 해시를 쓰므로 큰 값에서의 보정은 필요 없다.
+ *
+ * 같은 원소를 여러 번 넣어도 결과가 같다. merge는 레지스터마다 최대값을 취하며, 두 집합의 합집합을 추정하는 것과 같다.
+ * 스레드에 안전하지 않다. 스레드나 샤드마다 같은 precision과 seed로 만든 뒤 merge로 합친다.
+ */
+public class HyperLogLog {
+    static final int MAGIC = 0x484C4C47;   // "HLLG"
+    static final byte VERSION = 1;
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+
+    final byte[] registers;
+    final int precision;
+    final long seed;
+
+    /**
+     * precision 14 (16KB, 오차 약 0.8%)
+     */
+    public HyperLogLog() {
+        this(14, 0);
+    }
+
+    /**
+     * @param precision - 4 ~ 18, 레지스터 수는 2^precision
+     * @param seed - merge할 것끼리는 같아야 한다.
+     */
+    public HyperLogLog(int precision, long seed) {
+        if(precision < MIN_PRECISION || precision > MAX_PRECISION)
+            throw new IllegalArgumentException("precision must be in [" + MIN_PRECISION + ", " + MAX_PRECISION + "]: " + precision);
+        this.precision = precision;
+        this.seed = seed;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * @param hash - 64비트 해시값
+     * @return - 레지스터가 바뀌었으면 true
+     */
+    public boolean addHash(long hash) {
+        int index = (int)(hash >>> (64 - precision));
+        // 남은 비트가 모두 0이어도 rank가 64 - precision + 1을 넘지 않도록 끝에 1을 둔다.
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte)(Long.numberOfLeadingZeros(rest) + 1);
+        if(rank > registers[index]) {
+            registers[index] = rank;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean add(byte[] data) {
+        return addHash(Hashing.hash(data, seed));
+    }
+
+    public boolean add(String value) {
+        return addHash(Hashing.hash(value, seed));
+    }
+
+    public boolean add(long value) {
+        return addHash(Hashing.hash(value, seed));
+    }
+
+    /**
+     * 서로 다른 원소 수의 추정값
+     * 시간복잡도: O(2^precision)
+     * @return
+     */
+    public long cardinality() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for(byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if(register == 0) zeros++;
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if(estimate <= 2.5 * m && zeros > 0)
+            estimate = m * Math.log((double)m / zeros);
+        return Math.round(estimate);
+    }
+
+    private static double alpha(int m) {
+        switch(m) {
+            case 16: return 0.673;
+            case 32: return 0.697;
+            case 64: return 0.709;
+            default: return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * other의 원소를 이 HyperLogLog에 합친다.(레지스터마다 최대값)
+     * @param other - precision, seed가 같아야 한다.
+     */
+    public void merge(HyperLogLog other) {
+        if(other.precision != precision || other.seed != seed)
+            throw new IllegalArgumentException("incompatible hyperloglogs");
+        for(int i=0; i<registers.length; i++) {
+            if(other.registers[i] > registers[i])
+                registers[i] = other.registers[i];
+        }
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * 이 precision에서 기대하는 상대 표준 오차
+     * @return
+     */
+    public double relativeError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    /**
+     * [magic int][version byte][precision byte][seed long][registers byte...]
+     * @return
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(14 + registers.length);
+        buffer.putInt(MAGIC).put(VERSION).put((byte)precision).putLong(seed).put(registers);
+        return buffer.array();
+    }
+
+    public static HyperLogLog fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = Hashing.open(bytes, MAGIC, VERSION);
+        if(buffer.remaining() < 9) throw new IllegalArgumentException("corrupt data: truncated header");
+        int precision = buffer.get();
+        long seed = buffer.getLong();
+        if(precision < MIN_PRECISION || precision > MAX_PRECISION)
+            throw new IllegalArgumentException("corrupt data: precision " + precision);
+        Hashing.expect(buffer, 1L << precision);
+        HyperLogLog hll = new HyperLogLog(precision, seed);
+        buffer.get(hll.registers);
+        int maxRank = 64 - precision + 1;
+        for(byte register : hll.registers) {
+            if(register < 0 || register > maxRank)
+                throw new IllegalArgumentException("corrupt data: register " + register);
+        }
+        return hll;
+    }
+}
@@ -0,0 +1,11 @@
+package snapshot;
+
+/**
+ * 스냅샷 파일에 원소를 저장할 때 원소와 바이트 배열을 서로 바꾸는 방법
+ * decode(encode(x))는 x와 같은 원소를 돌려주어야 한다.
+ * @param <T>
+ */
+public interface Codec<T> {
+    public byte[] encode(T value);
+    public T decode(byte[] bytes);
+}
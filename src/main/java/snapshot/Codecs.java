@@ -0,0 +1,77 @@
+package snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 자주 쓰는 타입의 Codec 모음
+ */
+public class Codecs {
+
+    private Codecs() {
+    }
+
+    /**
+     * UTF-8로 인코딩한 문자열
+     * @return
+     */
+    public static Codec<String> string() {
+        return new Codec<String>() {
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * 4바이트 big-endian 정수
+     * @return
+     */
+    public static Codec<Integer> integer() {
+        return new Codec<Integer>() {
+            public byte[] encode(Integer value) {
+                return ByteBuffer.allocate(4).putInt(value).array();
+            }
+
+            public Integer decode(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getInt();
+            }
+        };
+    }
+
+    /**
+     * 8바이트 big-endian 정수
+     * @return
+     */
+    public static Codec<Long> longs() {
+        return new Codec<Long>() {
+            public byte[] encode(Long value) {
+                return ByteBuffer.allocate(8).putLong(value).array();
+            }
+
+            public Long decode(byte[] bytes) {
+                return ByteBuffer.wrap(bytes).getLong();
+            }
+        };
+    }
+
+    /**
+     * 바이트 배열을 그대로 저장한다.
+     * @return
+     */
+    public static Codec<byte[]> bytes() {
+        return new Codec<byte[]>() {
+            public byte[] encode(byte[] value) {
+                return value;
+            }
+
+            public byte[] decode(byte[] bytes) {
+                return bytes;
+            }
+        };
+    }
+}
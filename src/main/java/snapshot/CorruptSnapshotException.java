@@ -0,0 +1,14 @@
+package snapshot;
+
+import java.io.IOException;
+
+/**
+ * 스냅샷 파일의 헤더가 맞지 않거나(다른 파일, 지원하지 않는 버전) 내용이 손상된 경우(체크섬 불일치, 잘린 파일)
+ */
+public class CorruptSnapshotException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CorruptSnapshotException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,73 @@
+package snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 스냅샷 파일의 헤더 (56바이트, big-endian)
+ *   magic int       - 스냅샷 파일인지 확인하는 값 (DSSN)
+ *   version int     - 형식의 버전, 다르면 읽지 않는다.
+ *   kind int        - 어떤 자료구조의 스냅샷인지 (KIND_HASH, KIND_TREE)
+ *   reserved int
+ *   count long      - 원소 수
+ *   indexOffset long - 해시 인덱스(칸 배열)가 시작하는 파일 위치, 인덱스가 없으면 0
+ *   slotCount long  - 해시 인덱스의 칸 수
+ *   payloadLength long - 헤더 뒤의 바이트 수
+ *   crc long        - 헤더 뒤의 모든 바이트의 CRC32
+ */
+public class SnapshotHeader {
+    public static final int MAGIC = 0x4453534E;
+    public static final int VERSION = 1;
+    public static final int KIND_HASH = 1;
+    public static final int KIND_TREE = 2;
+    public static final int SIZE = 56;
+
+    public final int kind;
+    public final long count, indexOffset, slotCount, payloadLength, crc;
+
+    public SnapshotHeader(int kind, long count, long indexOffset, long slotCount, long payloadLength, long crc) {
+        this.kind = kind;
+        this.count = count;
+        this.indexOffset = indexOffset;
+        this.slotCount = slotCount;
+        this.payloadLength = payloadLength;
+        this.crc = crc;
+    }
+
+    ByteBuffer toBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(kind).putInt(0);
+        buffer.putLong(count).putLong(indexOffset).putLong(slotCount).putLong(payloadLength).putLong(crc);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 파일의 처음에서 헤더를 읽고 확인한다.
+     * 파일 크기가 헤더에 적힌 크기와 다르면 쓰는 도중에 멈췄거나 잘린 파일이다.
+     * @param channel
+     * @param expectedKind
+     * @return
+     * @throws IOException
+     */
+    public static SnapshotHeader read(FileChannel channel, int expectedKind) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, buffer.position()) < 0)
+                throw new CorruptSnapshotException("file is shorter than the header");
+        }
+        buffer.flip();
+        if(buffer.getInt() != MAGIC) throw new CorruptSnapshotException("not a snapshot file");
+        int version = buffer.getInt();
+        if(version != VERSION) throw new CorruptSnapshotException("unsupported snapshot version: " + version);
+        int kind = buffer.getInt();
+        if(kind != expectedKind) throw new CorruptSnapshotException("unexpected snapshot kind: " + kind);
+        buffer.getInt();
+        SnapshotHeader header = new SnapshotHeader(kind, buffer.getLong(), buffer.getLong(), buffer.getLong(),
+                buffer.getLong(), buffer.getLong());
+        if(header.count < 0 || header.payloadLength < 0 || channel.size() != SIZE + header.payloadLength)
+            throw new CorruptSnapshotException("snapshot is truncated or has trailing data");
+        return header;
+    }
+}
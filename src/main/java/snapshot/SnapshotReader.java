@@ -0,0 +1,100 @@
+package snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 스냅샷 파일을 처음부터 차례로 읽는 클래스 (bulk load에 사용)
+ * 읽은 바이트의 CRC32를 계산해 두었다가 verify()에서 헤더의 값과 비교한다.
+ */
+public class SnapshotReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private final CRC32 crc = new CRC32();
+    public final SnapshotHeader header;
+    // 아직 파일에서 읽지 않은 내용의 바이트 수
+    private long unread;
+
+    public SnapshotReader(Path path, int expectedKind) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            header = SnapshotHeader.read(channel, expectedKind);
+        } catch(IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.position(SnapshotHeader.SIZE);
+        unread = header.payloadLength;
+        buffer.limit(0);
+    }
+
+    /**
+     * 버퍼에 n바이트 이상이 남아있도록 파일에서 더 읽는다.
+     */
+    private void fill(int n) throws IOException {
+        if(buffer.remaining() >= n) return;
+        buffer.compact();
+        while(buffer.position() < n) {
+            if(unread == 0) throw new CorruptSnapshotException("unexpected end of snapshot");
+            int start = buffer.position();
+            int limit = (int)Math.min(buffer.capacity(), start + unread);
+            buffer.limit(limit);
+            int read = channel.read(buffer);
+            if(read < 0) throw new CorruptSnapshotException("unexpected end of snapshot");
+            ByteBuffer added = buffer.duplicate();
+            added.flip().position(start);
+            crc.update(added);
+            unread -= read;
+        }
+        buffer.flip();
+    }
+
+    public int readInt() throws IOException {
+        fill(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        fill(8);
+        return buffer.getLong();
+    }
+
+    public byte[] readBytes(int length) throws IOException {
+        //손상된 길이 값으로 큰 배열을 할당하지 않도록 남은 바이트 수와 비교한다.
+        if(length < 0 || length > unread + buffer.remaining())
+            throw new CorruptSnapshotException("invalid length: " + length);
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while(offset < length) {
+            fill(1);
+            int n = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, n);
+            offset += n;
+        }
+        return bytes;
+    }
+
+    /**
+     * 남은 내용을 끝까지 읽어서 CRC32를 헤더의 값과 비교한다.
+     * @throws CorruptSnapshotException - 값이 다른 경우
+     */
+    public void verify() throws IOException {
+        buffer.position(buffer.limit());
+        while(unread > 0) {
+            fill(1);
+            buffer.position(buffer.limit());
+        }
+        if(crc.getValue() != header.crc)
+            throw new CorruptSnapshotException("checksum mismatch");
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,111 @@
+package snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 스냅샷 파일을 쓰는 클래스
+ * 헤더 자리를 비워두고 내용을 차례로 쓰면서 CRC32를 계산한 뒤, finish()에서 헤더를 채운다.
+ * 임시 파일(path.tmp)에 쓴 뒤 다 쓰면 원래 이름으로 바꾸므로 쓰는 도중에 프로세스가 죽어도 기존 스냅샷은 남아있다.
+ */
+public class SnapshotWriter implements Closeable {
+    private final Path path, tmp;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+    private final CRC32 crc = new CRC32();
+    // 지금까지 쓴 바이트의 파일 위치 (헤더 포함)
+    private long position;
+    private boolean finished;
+
+    public SnapshotWriter(Path path) throws IOException {
+        this.path = path;
+        this.tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(SnapshotHeader.SIZE);
+        position = SnapshotHeader.SIZE;
+    }
+
+    /**
+     * 다음에 쓸 바이트의 파일 위치
+     * @return
+     */
+    public long position() {
+        return position;
+    }
+
+    public void writeInt(int value) throws IOException {
+        if(buffer.remaining() < 4) flush();
+        buffer.putInt(value);
+        position += 4;
+    }
+
+    public void writeLong(long value) throws IOException {
+        if(buffer.remaining() < 8) flush();
+        buffer.putLong(value);
+        position += 8;
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        if(bytes.length > buffer.remaining()) flush();
+        if(bytes.length > buffer.capacity()) {
+            crc.update(bytes);
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+            while(wrapped.hasRemaining())
+                channel.write(wrapped);
+        } else {
+            buffer.put(bytes);
+        }
+        position += bytes.length;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * 헤더를 쓰고 파일을 디스크에 기록한 뒤 원래 이름으로 바꾼다.
+     * @param kind
+     * @param count
+     * @param indexOffset
+     * @param slotCount
+     * @throws IOException
+     */
+    public void finish(int kind, long count, long indexOffset, long slotCount) throws IOException {
+        flush();
+        SnapshotHeader header = new SnapshotHeader(kind, count, indexOffset, slotCount,
+                position - SnapshotHeader.SIZE, crc.getValue());
+        ByteBuffer headerBuffer = header.toBuffer();
+        while(headerBuffer.hasRemaining())
+            channel.write(headerBuffer, headerBuffer.position());
+        channel.force(true);
+        channel.close();
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        finished = true;
+    }
+
+    /**
+     * finish()하지 않고 닫으면 임시 파일을 지운다.
+     */
+    @Override
+    public void close() throws IOException {
+        if(finished) return;
+        channel.close();
+        Files.deleteIfExists(tmp);
+    }
+}
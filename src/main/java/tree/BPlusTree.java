@@ -0,0 +1,571 @@
+package tree;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * B+트리로 구현한 정렬된 맵
+ * Tree는 노드 하나에 데이터 하나를 저장하므로 한 단계 내려갈 때마다 따로 할당된 노드를 읽어야 한다.(캐시 미스)
+ * B+트리는 노드 하나에 최대 order개의 키를 배열로 저장하므로 트리의 높이가 log(order) n으로 낮아지고
+ * 한 노드 안에서는 배열을 이진 탐색하므로 메모리를 연속으로 읽는다.
+ *
+ * 1. 내부 노드(Inner)는 키와 자식 포인터만 가진다. children[i]에는 keys[i]보다 작은 키가, children[i+1]에는 keys[i] 이상인 키가 있다.
+ * 2. 리프 노드(Leaf)는 키와 값을 가지며, 리프끼리 next, prev로 연결되어 있어서 범위 탐색을 할 때 트리를 다시 내려가지 않는다.
+ * 3. 노드의 키가 order개를 넘으면 반으로 나누고(split), 루트를 제외한 노드의 키가 order/2개보다 적어지면
+ *    형제 노드에서 빌려오거나(borrow) 형제 노드와 합친다(merge).
+ *
+ * 값 없이 키만 저장하면(add, contains) 정렬된 집합으로 사용할 수 있다.
+ * 키는 Tree와 같이 Comparable로 비교한다.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class BPlusTree<K, V> implements Iterable<Map.Entry<K, V>> {
+
+    static final int DEFAULT_ORDER = 64;
+
+    /**
+     * 리프와 내부 노드의 공통 부분
+     * keys 배열은 split 전에 잠시 order+1개가 될 수 있도록 한 칸 여유를 둔다.
+     */
+    static abstract class Node {
+        Object[] keys;
+        int count;
+
+        Node(int order) {
+            keys = new Object[order + 1];
+        }
+    }
+
+    static final class Leaf extends Node {
+        Object[] values;
+        Leaf next, prev;
+
+        Leaf(int order) {
+            super(order);
+            values = new Object[order + 1];
+        }
+    }
+
+    static final class Inner extends Node {
+        Node[] children;
+
+        Inner(int order) {
+            super(order);
+            children = new Node[order + 2];
+        }
+    }
+
+    final int order;
+    final int minKeys;
+    Node root;
+    Leaf first, last;
+    int currentSize;
+
+    // 내려온 경로의 내부 노드와 그 노드에서 선택한 자식의 인덱스
+    private Inner[] pathNodes = new Inner[16];
+    private int[] pathIndex = new int[16];
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * 생성자
+     * order는 노드 하나에 저장하는 최대 키의 수(fan-out)이다.
+     * 키가 작은 값(Integer, Long)이면 32~128 정도가 캐시라인 몇 개에 한 노드의 키가 들어가서 적당하다.
+     * @param order
+     */
+    public BPlusTree(int order) {
+        if(order < 3) throw new IllegalArgumentException("order must be at least 3: " + order);
+        this.order = order;
+        this.minKeys = order / 2;
+        Leaf leaf = new Leaf(order);
+        root = first = last = leaf;
+    }
+
+    private int compare(Object a, Object b) {
+        return ((Comparable<Object>)a).compareTo(b);
+    }
+
+    /**
+     * 리프에서 key의 위치를 이진 탐색한다.
+     * @return - 찾으면 인덱스, 없으면 -(들어갈 위치 + 1)
+     */
+    private int search(Node node, Object key) {
+        int low = 0, high = node.count - 1;
+        while(low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(node.keys[mid], key);
+            if(cmp < 0) low = mid + 1;
+            else if(cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * 내부 노드에서 key가 들어있는 자식의 인덱스 (key 이하인 키의 개수)
+     */
+    private int childIndex(Inner node, Object key) {
+        int i = search(node, key);
+        return i >= 0 ? i + 1 : -i - 1;
+    }
+
+    private Leaf findLeaf(Object key) {
+        Node node = root;
+        while(node instanceof Inner) {
+            Inner inner = (Inner)node;
+            node = inner.children[childIndex(inner, key)];
+        }
+        return (Leaf)node;
+    }
+
+    /**
+     * 루트에서 key가 있어야 할 리프까지 내려가며 경로를 저장한다.
+     * @return - 경로의 길이(내부 노드의 수)
+     */
+    private int descend(Object key) {
+        Node node = root;
+        int depth = 0;
+        while(node instanceof Inner) {
+            Inner inner = (Inner)node;
+            int index = childIndex(inner, key);
+            if(depth == pathNodes.length) {
+                pathNodes = Arrays.copyOf(pathNodes, depth * 2);
+                pathIndex = Arrays.copyOf(pathIndex, depth * 2);
+            }
+            pathNodes[depth] = inner;
+            pathIndex[depth++] = index;
+            node = inner.children[index];
+        }
+        return depth;
+    }
+
+    private Leaf leafAt(int depth) {
+        return (Leaf)(depth == 0 ? root : pathNodes[depth-1].children[pathIndex[depth-1]]);
+    }
+
+    public V get(K key) {
+        Leaf leaf = findLeaf(key);
+        int i = search(leaf, key);
+        return i >= 0 ? (V)leaf.values[i] : null;
+    }
+
+    public boolean containsKey(K key) {
+        return search(findLeaf(key), key) >= 0;
+    }
+
+    public boolean contains(K key) {
+        return containsKey(key);
+    }
+
+    public boolean add(K key) {
+        int before = currentSize;
+        put(key, null);
+        return currentSize != before;
+    }
+
+    /**
+     * key, value를 저장한다. 같은 key가 있으면 value를 바꾼다.
+     * 리프가 가득 차면 반으로 나누고, 오른쪽 리프의 첫 키를 부모에 추가한다.
+     * 부모도 가득 차면 같은 방식으로 루트까지 올라가며 나눈다.
+     * 시간복잡도: O(log n)
+     * @param key
+     * @param value
+     * @return - 이전 value, 새로운 key였다면 null
+     */
+    public V put(K key, V value) {
+        int depth = descend(key);
+        Leaf leaf = leafAt(depth);
+        int i = search(leaf, key);
+        if(i >= 0) {
+            V old = (V)leaf.values[i];
+            leaf.values[i] = value;
+            clearPath(depth);
+            return old;
+        }
+        i = -i - 1;
+        insertAt(leaf.keys, leaf.count, i, key);
+        insertAt(leaf.values, leaf.count, i, value);
+        leaf.count++;
+        currentSize++;
+        if(leaf.count > order)
+            splitLeaf(leaf, depth);
+        clearPath(depth);
+        return null;
+    }
+
+    private static void insertAt(Object[] array, int count, int index, Object value) {
+        System.arraycopy(array, index, array, index + 1, count - index);
+        array[index] = value;
+    }
+
+    private static void removeAt(Object[] array, int count, int index) {
+        System.arraycopy(array, index + 1, array, index, count - index - 1);
+        array[count - 1] = null;
+    }
+
+    private void clearPath(int depth) {
+        Arrays.fill(pathNodes, 0, depth, null);
+    }
+
+    private void splitLeaf(Leaf leaf, int depth) {
+        Leaf right = new Leaf(order);
+        int half = leaf.count / 2;
+        right.count = leaf.count - half;
+        System.arraycopy(leaf.keys, half, right.keys, 0, right.count);
+        System.arraycopy(leaf.values, half, right.values, 0, right.count);
+        Arrays.fill(leaf.keys, half, leaf.count, null);
+        Arrays.fill(leaf.values, half, leaf.count, null);
+        leaf.count = half;
+
+        right.next = leaf.next;
+        right.prev = leaf;
+        if(leaf.next != null) leaf.next.prev = right;
+        else last = right;
+        leaf.next = right;
+
+        insertIntoParent(leaf, right.keys[0], right, depth);
+    }
+
+    /**
+     * 나눠진 노드의 오른쪽 절반(right)과 그 첫 키(separator)를 부모에 추가한다.
+     * @param left
+     * @param separator
+     * @param right
+     * @param depth - left의 깊이 (부모는 pathNodes[depth-1])
+     */
+    private void insertIntoParent(Node left, Object separator, Node right, int depth) {
+        while(true) {
+            if(depth == 0) {
+                Inner newRoot = new Inner(order);
+                newRoot.keys[0] = separator;
+                newRoot.children[0] = left;
+                newRoot.children[1] = right;
+                newRoot.count = 1;
+                root = newRoot;
+                return;
+            }
+            Inner parent = pathNodes[depth-1];
+            int index = pathIndex[depth-1];
+            insertAt(parent.keys, parent.count, index, separator);
+            insertAt(parent.children, parent.count + 1, index + 1, right);
+            parent.count++;
+            if(parent.count <= order) return;
+
+            //내부 노드를 나눈다. 가운데 키는 오른쪽 노드로 가지 않고 부모로 올라간다.
+            Inner sibling = new Inner(order);
+            int mid = parent.count / 2;
+            separator = parent.keys[mid];
+            sibling.count = parent.count - mid - 1;
+            System.arraycopy(parent.keys, mid + 1, sibling.keys, 0, sibling.count);
+            System.arraycopy(parent.children, mid + 1, sibling.children, 0, sibling.count + 1);
+            Arrays.fill(parent.keys, mid, parent.count, null);
+            Arrays.fill(parent.children, mid + 1, parent.count + 1, null);
+            parent.count = mid;
+            left = parent;
+            right = sibling;
+            depth--;
+        }
+    }
+
+    /**
+     * key를 삭제한다.
+     * 리프의 키가 minKeys보다 적어지면 옆의 형제에게서 하나 빌려오고, 형제도 여유가 없으면 둘을 합친다.
+     * 합치면 부모의 키가 하나 줄어드므로 부모에서도 같은 과정을 반복한다.
+     * 시간복잡도: O(log n)
+     * @param key
+     * @return - 삭제된 value, 없으면 null
+     */
+    public V remove(K key) {
+        int depth = descend(key);
+        Leaf leaf = leafAt(depth);
+        int i = search(leaf, key);
+        if(i < 0) {
+            clearPath(depth);
+            return null;
+        }
+        V old = (V)leaf.values[i];
+        removeAt(leaf.keys, leaf.count, i);
+        removeAt(leaf.values, leaf.count, i);
+        leaf.count--;
+        currentSize--;
+
+        int pathDepth = depth;
+        Node node = leaf;
+        while(depth > 0 && node.count < minKeys) {
+            Inner parent = pathNodes[depth-1];
+            int index = pathIndex[depth-1];
+            if(node instanceof Leaf) fixLeaf((Leaf)node, parent, index);
+            else fixInner((Inner)node, parent, index);
+            node = parent;
+            depth--;
+        }
+        if(root instanceof Inner && root.count == 0)
+            root = ((Inner)root).children[0];
+        clearPath(pathDepth);
+        return old;
+    }
+
+    private void fixLeaf(Leaf leaf, Inner parent, int index) {
+        Leaf left = index > 0 ? (Leaf)parent.children[index-1] : null;
+        Leaf right = index < parent.count ? (Leaf)parent.children[index+1] : null;
+        if(left != null && left.count > minKeys) {
+            insertAt(leaf.keys, leaf.count, 0, left.keys[left.count-1]);
+            insertAt(leaf.values, leaf.count, 0, left.values[left.count-1]);
+            leaf.count++;
+            left.count--;
+            left.keys[left.count] = null;
+            left.values[left.count] = null;
+            parent.keys[index-1] = leaf.keys[0];
+        } else if(right != null && right.count > minKeys) {
+            leaf.keys[leaf.count] = right.keys[0];
+            leaf.values[leaf.count] = right.values[0];
+            leaf.count++;
+            removeAt(right.keys, right.count, 0);
+            removeAt(right.values, right.count, 0);
+            right.count--;
+            parent.keys[index] = right.keys[0];
+        } else if(left != null) {
+            mergeLeaves(left, leaf, parent, index - 1);
+        } else if(right != null) {
+            mergeLeaves(leaf, right, parent, index);
+        }
+    }
+
+    /**
+     * 오른쪽 리프의 내용을 왼쪽 리프로 옮기고, 부모에서 separatorIndex의 키와 오른쪽 리프를 제거한다.
+     */
+    private void mergeLeaves(Leaf left, Leaf right, Inner parent, int separatorIndex) {
+        System.arraycopy(right.keys, 0, left.keys, left.count, right.count);
+        System.arraycopy(right.values, 0, left.values, left.count, right.count);
+        left.count += right.count;
+        left.next = right.next;
+        if(right.next != null) right.next.prev = left;
+        else last = left;
+        removeAt(parent.keys, parent.count, separatorIndex);
+        removeAt(parent.children, parent.count + 1, separatorIndex + 1);
+        parent.count--;
+    }
+
+    private void fixInner(Inner node, Inner parent, int index) {
+        Inner left = index > 0 ? (Inner)parent.children[index-1] : null;
+        Inner right = index < parent.count ? (Inner)parent.children[index+1] : null;
+        if(left != null && left.count > minKeys) {
+            //부모의 키를 내려받고, 왼쪽 형제의 마지막 키를 부모로 올린다.
+            insertAt(node.keys, node.count, 0, parent.keys[index-1]);
+            insertAt(node.children, node.count + 1, 0, left.children[left.count]);
+            node.count++;
+            parent.keys[index-1] = left.keys[left.count-1];
+            left.keys[left.count-1] = null;
+            left.children[left.count] = null;
+            left.count--;
+        } else if(right != null && right.count > minKeys) {
+            node.keys[node.count] = parent.keys[index];
+            node.children[node.count + 1] = right.children[0];
+            node.count++;
+            parent.keys[index] = right.keys[0];
+            removeAt(right.keys, right.count, 0);
+            removeAt(right.children, right.count + 1, 0);
+            right.count--;
+        } else if(left != null) {
+            mergeInner(left, node, parent, index - 1);
+        } else if(right != null) {
+            mergeInner(node, right, parent, index);
+        }
+    }
+
+    private void mergeInner(Inner left, Inner right, Inner parent, int separatorIndex) {
+        left.keys[left.count] = parent.keys[separatorIndex];
+        System.arraycopy(right.keys, 0, left.keys, left.count + 1, right.count);
+        System.arraycopy(right.children, 0, left.children, left.count + 1, right.count + 1);
+        left.count += right.count + 1;
+        removeAt(parent.keys, parent.count, separatorIndex);
+        removeAt(parent.children, parent.count + 1, separatorIndex + 1);
+        parent.count--;
+    }
+
+    public int size() {
+        return currentSize;
+    }
+
+    public int height() {
+        int height = 1;
+        for(Node node = root; node instanceof Inner; node = ((Inner)node).children[0])
+            height++;
+        return height;
+    }
+
+    public K firstKey() {
+        if(currentSize == 0) throw new NoSuchElementException();
+        return (K)first.keys[0];
+    }
+
+    public K lastKey() {
+        if(currentSize == 0) throw new NoSuchElementException();
+        return (K)last.keys[last.count-1];
+    }
+
+    /**
+     * from 이상 to 미만인 키를 순서대로 action에 전달한다.
+     * from이 들어있는 리프를 한 번만 찾고, 그 다음부터는 리프의 next를 따라가므로 트리를 다시 내려가지 않는다.
+     * 원소마다 Entry 객체를 만들지 않는다.
+     * @param from - null이면 처음부터
+     * @param to - null이면 끝까지
+     * @param action
+     */
+    public void forEach(K from, K to, BiConsumer<? super K, ? super V> action) {
+        Leaf leaf = from == null ? first : findLeaf(from);
+        int i = 0;
+        if(from != null) {
+            i = search(leaf, from);
+            if(i < 0) i = -i - 1;
+        }
+        for(; leaf != null; leaf = leaf.next, i = 0) {
+            for(; i < leaf.count; i++) {
+                if(to != null && compare(leaf.keys[i], to) >= 0) return;
+                action.accept((K)leaf.keys[i], (V)leaf.values[i]);
+            }
+        }
+    }
+
+    /**
+     * from 이상 to 미만의 원소를 차례로 돌려주는 Iterable
+     * 호출 시점에 원소를 복사하지 않고, 반복하면서 리프를 따라간다.
+     * @param from - null이면 처음부터
+     * @param to - null이면 끝까지
+     * @return
+     */
+    public Iterable<Map.Entry<K, V>> range(K from, K to) {
+        return () -> new RangeIterator(from, to);
+    }
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+        return new RangeIterator(null, null);
+    }
+
+    class RangeIterator implements Iterator<Map.Entry<K, V>> {
+        Leaf leaf;
+        int index;
+        final K to;
+
+        RangeIterator(K from, K to) {
+            this.to = to;
+            leaf = from == null ? first : findLeaf(from);
+            if(from != null) {
+                index = search(leaf, from);
+                if(index < 0) index = -index - 1;
+            }
+            advance();
+        }
+
+        //현재 리프를 다 읽었으면 원소가 있는 다음 리프로 넘어간다.
+        private void advance() {
+            while(leaf != null && index >= leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if(leaf != null && to != null && compare(leaf.keys[index], to) >= 0)
+                leaf = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if(!hasNext()) throw new NoSuchElementException();
+            Map.Entry<K, V> entry = new AbstractMap.SimpleImmutableEntry<>((K)leaf.keys[index], (V)leaf.values[index]);
+            index++;
+            advance();
+            return entry;
+        }
+    }
+
+    /**
+     * n개를 노드마다 고르게 나눌 때의 노드 수
+     * 노드마다 fill개 정도를 넣되, 고르게 나눈 결과가 max를 넘지 않고 max/2보다 작아지지 않도록 정한다.
+     */
+    private static int nodeCount(int n, int fill, int max) {
+        return Math.max(1, Math.max(n / fill, (n + max - 1) / max));
+    }
+
+    /**
+     * 정렬된 키와 값으로 트리를 한 번에 만든다.
+     * 원소를 하나씩 put하면 O(n log n)이고 split이 반복되지만, 여기서는 리프를 왼쪽부터 차례로 채운 뒤
+     * 그 위의 내부 노드를 한 층씩 만들어서 O(n)에 만든다.
+     * 각 노드는 order의 3/4 정도만 채워서 이후에 넣는 원소 때문에 바로 split이 일어나지 않게 한다.
+     * @param order
+     * @param keys - 오름차순으로 정렬되어 있고 중복이 없어야 한다.
+     * @param values - keys와 같은 길이, null이면 값 없이 키만 저장한다.
+     * @return
+     */
+    public static <K, V> BPlusTree<K, V> bulkLoad(int order, List<K> keys, List<V> values) {
+        if(values != null && values.size() != keys.size())
+            throw new IllegalArgumentException("keys and values differ in size: " + keys.size() + " != " + values.size());
+        BPlusTree<K, V> tree = new BPlusTree<>(order);
+        int n = keys.size();
+        if(n == 0) return tree;
+        int fill = Math.max(tree.minKeys, order * 3 / 4);
+
+        //1. 리프를 만든다. 리프 수를 먼저 정하고 원소를 고르게 나눠서 마지막 리프가 너무 작아지지 않게 한다.
+        int leafCount = nodeCount(n, fill, order);
+        Node[] level = new Node[leafCount];
+        Object[] firstKeys = new Object[leafCount];
+        Iterator<K> keyIt = keys.iterator();
+        Iterator<V> valueIt = values == null ? null : values.iterator();
+        Object previous = null;
+        Leaf prevLeaf = null;
+        for(int l=0; l<leafCount; l++) {
+            Leaf leaf = new Leaf(order);
+            leaf.count = n / leafCount + (l < n % leafCount ? 1 : 0);
+            for(int i=0; i<leaf.count; i++) {
+                Object key = keyIt.next();
+                if(previous != null && tree.compare(previous, key) >= 0)
+                    throw new IllegalArgumentException("keys are not strictly ascending at " + key);
+                leaf.keys[i] = previous = key;
+                leaf.values[i] = valueIt == null ? null : valueIt.next();
+            }
+            leaf.prev = prevLeaf;
+            if(prevLeaf != null) prevLeaf.next = leaf;
+            prevLeaf = leaf;
+            level[l] = leaf;
+            firstKeys[l] = leaf.keys[0];
+        }
+        tree.first = (Leaf)level[0];
+        tree.last = prevLeaf;
+
+        //2. 한 층씩 위로 내부 노드를 만든다. 내부 노드의 키는 두 번째 자식부터 각 자식 서브트리의 가장 작은 키이다.
+        while(level.length > 1) {
+            int parentCount = nodeCount(level.length, fill + 1, order + 1);
+            Node[] parents = new Node[parentCount];
+            Object[] parentFirstKeys = new Object[parentCount];
+            int c = 0;
+            for(int p=0; p<parentCount; p++) {
+                Inner inner = new Inner(order);
+                int children = level.length / parentCount + (p < level.length % parentCount ? 1 : 0);
+                parentFirstKeys[p] = firstKeys[c];
+                for(int j=0; j<children; j++, c++) {
+                    inner.children[j] = level[c];
+                    if(j > 0) inner.keys[j-1] = firstKeys[c];
+                }
+                inner.count = children - 1;
+                parents[p] = inner;
+            }
+            level = parents;
+            firstKeys = parentFirstKeys;
+        }
+        tree.root = level[0];
+        tree.currentSize = n;
+        return tree;
+    }
+}
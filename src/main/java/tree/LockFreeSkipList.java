@@ -0,0 +1,401 @@
+package tree;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 락을 사용하지 않는 스킵 리스트로 구현한 정렬 집합 (Herlihy-Shavit lock-free skip list)
+ * Tree와 같이 원소를 정렬된 순서로 저장하지만, 여러 스레드가 동시에 add, contains, remove를 해도 안전하다.
+ *
+ * 각 노드는 0 ~ topLevel 층의 next 참조를 가진다. topLevel은 1/2 확률로 한 층씩 올라가도록 무작위로 정한다.
+ * 위층은 아래층의 일부 노드만 연결하므로 위에서부터 내려오며 찾으면 평균 O(log n)에 원하는 위치에 도달한다.
+ * 0층의 리스트가 집합 자체이고, 위층은 빨리 찾기 위한 색인이다.
+ *
+ * next 참조는 AtomicMarkableReference이며 mark는 "이 노드가 삭제되는 중"이라는 뜻이다.
+ * 1. add는 0층에 CAS로 연결되는 순간 집합에 들어간 것이 되고, 그 뒤에 위층들을 연결한다.
+ * 2. remove는 위층부터 0층까지 노드의 next에 mark를 붙인다. 0층에 mark를 붙인 스레드가 삭제에 성공한 것이다.
+ *    mark가 붙은 노드는 이후 add나 remove가 지나가다 CAS로 떼어낸다.
+ * 3. contains, floor, ceiling과 반복자는 mark가 붙은 노드를 건너뛰기만 하고 CAS를 하지 않는다.(wait-free)
+ *
+ * 반복자와 범위 탐색은 약한 일관성(weakly consistent)을 가진다.
+ * 반복하는 동안 다른 스레드가 변경해도 예외가 나지 않으며, 반복을 시작할 때 있던 원소 중 끝까지 삭제되지 않은 것은 모두 나온다.
+ *
+ * null은 원소로 넣을 수 없다.
+ * @param <E>
+ */
+public class LockFreeSkipList<E> implements Iterable<E> {
+
+    // 최대 층 수. 1/2 확률로 층이 올라가므로 2^32개 정도까지 충분하다.
+    static final int MAX_LEVEL = 32;
+
+    static final class Node<E> {
+        final E key;
+        final AtomicMarkableReference<Node<E>>[] next;
+        final int topLevel;
+
+        Node(E key, int topLevel) {
+            this.key = key;
+            this.topLevel = topLevel;
+            next = (AtomicMarkableReference<Node<E>>[]) new AtomicMarkableReference[topLevel + 1];
+            for(int i=0; i<=topLevel; i++)
+                next[i] = new AtomicMarkableReference<>(null, false);
+        }
+
+        boolean isDeleted() {
+            return next[0].isMarked();
+        }
+    }
+
+    // key가 없는 시작 노드. 모든 원소보다 작은 것으로 취급한다. 리스트의 끝은 null이다.
+    final Node<E> head = new Node<>(null, MAX_LEVEL - 1);
+    final Comparator<? super E> comparator;
+    // 원소 수. 동시에 변경되는 중에는 근사값이다.
+    final LongAdder count = new LongAdder();
+
+    public LockFreeSkipList() {
+        this(null);
+    }
+
+    /**
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     */
+    public LockFreeSkipList(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    private int compare(E a, E b) {
+        if(comparator != null) return comparator.compare(a, b);
+        return ((Comparable<E>)a).compareTo(b);
+    }
+
+    private static int randomLevel() {
+        // 하위 비트부터 연속된 0의 개수가 k일 확률이 1/2^(k+1)이다.
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1)));
+    }
+
+    /**
+     * 각 층에서 key보다 작은 마지막 노드(preds)와 그 다음 노드(succs)를 찾는다.
+     * 지나가면서 mark가 붙은 노드를 떼어내고, 떼어내는 CAS가 실패하면 처음부터 다시 찾는다.
+     * @param key
+     * @param preds
+     * @param succs
+     * @return - 0층에 key와 같은 노드가 있으면 true
+     */
+    private boolean find(E key, Node<E>[] preds, Node<E>[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while(true) {
+            Node<E> pred = head;
+            Node<E> curr = null;
+            for(int level=MAX_LEVEL-1; level>=0; level--) {
+                curr = pred.next[level].getReference();
+                while(curr != null) {
+                    Node<E> succ = curr.next[level].get(marked);
+                    while(marked[0]) {
+                        if(!pred.next[level].compareAndSet(curr, succ, false, false))
+                            continue retry;
+                        curr = succ;
+                        if(curr == null) break;
+                        succ = curr.next[level].get(marked);
+                    }
+                    if(curr == null || compare(curr.key, key) >= 0) break;
+                    pred = curr;
+                    curr = succ;
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return curr != null && compare(curr.key, key) == 0;
+        }
+    }
+
+    /**
+     * 원소를 추가한다.
+     * 0층에 연결되면 다른 스레드에게 보이고, 위층은 그 뒤에 하나씩 연결한다.
+     * 시간복잡도: 평균 O(log n)
+     * @param key
+     * @return - 이미 같은 원소가 있으면 false
+     */
+    public boolean add(E key) {
+        if(key == null) throw new NullPointerException();
+        int topLevel = randomLevel();
+        Node<E>[] preds = (Node<E>[]) new Node[MAX_LEVEL];
+        Node<E>[] succs = (Node<E>[]) new Node[MAX_LEVEL];
+        while(true) {
+            if(find(key, preds, succs)) return false;
+            Node<E> node = new Node<>(key, topLevel);
+            for(int level=0; level<=topLevel; level++)
+                node.next[level].set(succs[level], false);
+            if(!preds[0].next[0].compareAndSet(succs[0], node, false, false))
+                continue;
+            count.increment();
+            linkUpperLevels(node, preds, succs);
+            return true;
+        }
+    }
+
+    private void linkUpperLevels(Node<E> node, Node<E>[] preds, Node<E>[] succs) {
+        boolean[] marked = {false};
+        for(int level=1; level<=node.topLevel; level++) {
+            while(true) {
+                Node<E> succ = succs[level];
+                Node<E> current = node.next[level].get(marked);
+                // 연결하는 도중에 다른 스레드가 삭제를 시작했으면 더 연결하지 않는다.
+                if(marked[0]) return;
+                if(current != succ && !node.next[level].compareAndSet(current, succ, false, false))
+                    continue;
+                if(preds[level].next[level].compareAndSet(succ, node, false, false))
+                    break;
+                find(node.key, preds, succs);
+            }
+        }
+    }
+
+    /**
+     * 원소를 삭제한다.
+     * 위층부터 mark를 붙이고, 0층에 mark를 붙이는 데 성공한 스레드만 true를 반환한다.
+     * 시간복잡도: 평균 O(log n)
+     * @param key
+     * @return - 원소가 없거나 다른 스레드가 먼저 삭제했으면 false
+     */
+    public boolean remove(E key) {
+        Node<E>[] preds = (Node<E>[]) new Node[MAX_LEVEL];
+        Node<E>[] succs = (Node<E>[]) new Node[MAX_LEVEL];
+        if(!find(key, preds, succs)) return false;
+        return delete(succs[0], preds, succs);
+    }
+
+    private boolean delete(Node<E> victim, Node<E>[] preds, Node<E>[] succs) {
+        boolean[] marked = {false};
+        for(int level=victim.topLevel; level>=1; level--) {
+            Node<E> succ = victim.next[level].get(marked);
+            while(!marked[0]) {
+                victim.next[level].compareAndSet(succ, succ, false, true);
+                succ = victim.next[level].get(marked);
+            }
+        }
+        Node<E> succ = victim.next[0].get(marked);
+        while(true) {
+            if(victim.next[0].compareAndSet(succ, succ, false, true)) {
+                count.decrement();
+                // 지나가면서 떼어내도록 한 번 더 찾는다.
+                find(victim.key, preds, succs);
+                return true;
+            }
+            succ = victim.next[0].get(marked);
+            if(marked[0]) return false;
+        }
+    }
+
+    /**
+     * 0층에서 key보다 작은 마지막 살아있는 노드를 찾는다. CAS를 하지 않는다.
+     * @param key
+     * @return - 그런 노드가 없으면 head
+     */
+    private Node<E> predecessor(E key) {
+        boolean[] marked = {false};
+        Node<E> pred = head;
+        for(int level=MAX_LEVEL-1; level>=0; level--) {
+            Node<E> curr = pred.next[level].getReference();
+            while(curr != null) {
+                Node<E> succ = curr.next[level].get(marked);
+                if(!marked[0]) {
+                    if(compare(curr.key, key) >= 0) break;
+                    pred = curr;
+                }
+                curr = succ;
+            }
+        }
+        return pred;
+    }
+
+    /**
+     * node 다음의 0층에서 삭제되지 않은 첫 노드
+     * @param node
+     * @return - 없으면 null
+     */
+    private Node<E> nextLive(Node<E> node) {
+        Node<E> curr = node.next[0].getReference();
+        while(curr != null && curr.isDeleted())
+            curr = curr.next[0].getReference();
+        return curr;
+    }
+
+    private Node<E> ceilingNode(E key) {
+        return nextLive(predecessor(key));
+    }
+
+    private Node<E> higherNode(E key) {
+        Node<E> node = ceilingNode(key);
+        if(node != null && compare(node.key, key) == 0)
+            node = nextLive(node);
+        return node;
+    }
+
+    /**
+     * 시간복잡도: 평균 O(log n), 락이나 CAS 없이 읽기만 한다.
+     * @param key
+     * @return
+     */
+    public boolean contains(E key) {
+        Node<E> node = ceilingNode(key);
+        return node != null && compare(node.key, key) == 0;
+    }
+
+    /**
+     * @param key
+     * @return - key보다 작거나 같은 가장 큰 원소, 없으면 null
+     */
+    public E floor(E key) {
+        Node<E> pred = predecessor(key);
+        Node<E> next = nextLive(pred);
+        if(next != null && compare(next.key, key) == 0) return next.key;
+        return pred == head ? null : pred.key;
+    }
+
+    /**
+     * @param key
+     * @return - key보다 작은 가장 큰 원소, 없으면 null
+     */
+    public E lower(E key) {
+        Node<E> pred = predecessor(key);
+        return pred == head ? null : pred.key;
+    }
+
+    /**
+     * @param key
+     * @return - key보다 크거나 같은 가장 작은 원소, 없으면 null
+     */
+    public E ceiling(E key) {
+        Node<E> node = ceilingNode(key);
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * @param key
+     * @return - key보다 큰 가장 작은 원소, 없으면 null
+     */
+    public E higher(E key) {
+        Node<E> node = higherNode(key);
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * @return - 가장 작은 원소, 비어있으면 null
+     */
+    public E min() {
+        Node<E> node = nextLive(head);
+        return node == null ? null : node.key;
+    }
+
+    /**
+     * 각 층에서 끝까지 오른쪽으로 간 뒤 내려간다.
+     * @return - 가장 큰 원소, 비어있으면 null
+     */
+    public E max() {
+        boolean[] marked = {false};
+        Node<E> pred = head;
+        for(int level=MAX_LEVEL-1; level>=0; level--) {
+            Node<E> curr = pred.next[level].getReference();
+            while(curr != null) {
+                Node<E> succ = curr.next[level].get(marked);
+                if(!marked[0]) pred = curr;
+                curr = succ;
+            }
+        }
+        return pred == head ? null : pred.key;
+    }
+
+    /**
+     * 원소 수
+     * 다른 스레드가 변경하는 중에는 정확하지 않을 수 있다.
+     * @return
+     */
+    public int size() {
+        long size = count.sum();
+        return size < 0 ? 0 : (int)Math.min(size, Integer.MAX_VALUE);
+    }
+
+    public boolean isEmpty() {
+        return nextLive(head) == null;
+    }
+
+    /**
+     * 오름차순으로 순회하는 약한 일관성 반복자
+     * @return
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new SkipListIterator(nextLive(head), null, false);
+    }
+
+    /**
+     * from ~ to 범위의 원소를 오름차순으로 순회한다.
+     * 범위의 시작은 O(log n)에 찾고, 이후에는 0층을 따라간다.
+     * @param from
+     * @param fromInclusive
+     * @param to
+     * @param toInclusive
+     * @return
+     */
+    public Iterable<E> subRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return () -> new SkipListIterator(fromInclusive ? ceilingNode(from) : higherNode(from), to, toInclusive);
+    }
+
+    /**
+     * from 이상 to 미만
+     * @param from
+     * @param to
+     * @return
+     */
+    public Iterable<E> subRange(E from, E to) {
+        return subRange(from, true, to, false);
+    }
+
+    /**
+     * 다음 노드를 미리 찾아두는 반복자
+     * 삭제된 노드도 next는 계속 남아있으므로, 들고 있던 노드가 삭제되어도 그 다음으로 진행할 수 있다.
+     */
+    private class SkipListIterator implements Iterator<E> {
+        Node<E> nextNode;
+        final E to;
+        final boolean toInclusive;
+        E lastReturned;
+
+        SkipListIterator(Node<E> start, E to, boolean toInclusive) {
+            this.to = to;
+            this.toInclusive = toInclusive;
+            nextNode = inRange(start);
+        }
+
+        private Node<E> inRange(Node<E> node) {
+            if(node == null || to == null) return node;
+            int cmp = compare(node.key, to);
+            return cmp < 0 || (cmp == 0 && toInclusive) ? node : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextNode != null;
+        }
+
+        @Override
+        public E next() {
+            if(nextNode == null) throw new NoSuchElementException();
+            lastReturned = nextNode.key;
+            nextNode = inRange(nextLive(nextNode));
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if(lastReturned == null) throw new IllegalStateException();
+            LockFreeSkipList.this.remove(lastReturned);
+            lastReturned = null;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package tree;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 변경할 수 없는(persistent) AVL 트리
+ * add, remove는 기존 트리를 바꾸지 않고 새 트리를 반환한다.
+ * 루트에서 바뀌는 노드까지의 경로(path)만 복사하고 나머지 서브트리는 기존 트리와 공유하므로 연산 한 번에 O(log n)개의 노드만 새로 만든다.(path copying)
+ *
+ * 한 번 만들어진 트리는 바뀌지 않으므로 트리 객체 자체가 스냅샷이다.
+ * 쓰는 스레드가 새 트리를 volatile 필드 등에 게시하면, 읽는 스레드는 락 없이 그 시점의 일관된 트리를 계속 읽을 수 있다.
+ *
+ * 대량으로 넣을 때는 Builder를 사용한다.
+ * Builder가 만든 노드에는 Builder의 표시(edit)가 붙어있어서, 같은 Builder 안에서는 경로를 복사하지 않고 그 노드를 직접 고친다.
+ * build()를 호출하면 표시를 바꾸므로 이미 반환한 트리의 노드는 더 이상 고쳐지지 않는다.
+ *
+ * Tree와 같이 같은 원소를 여러 번 넣을 수 있고(오른쪽으로 간다), remove는 하나만 삭제한다.
+ * @param <E>
+ */
+public final class PersistentTree<E> implements Iterable<E> {
+
+    /**
+     * edit이 null이면 어떤 트리에 속했는지와 상관없이 고칠 수 없는 노드이다.
+     * @param <E>
+     */
+    static final class Node<E> {
+        E data;
+        Node<E> left, right;
+        int height, size;
+        Object edit;
+
+        Node(E data, Node<E> left, Node<E> right, Object edit) {
+            this.data = data;
+            this.left = left;
+            this.right = right;
+            this.edit = edit;
+            update();
+        }
+
+        void update() {
+            height = Math.max(height(left), height(right)) + 1;
+            size = size(left) + size(right) + 1;
+        }
+    }
+
+    final Node<E> root;
+    final Comparator<? super E> comparator;
+
+    private static final PersistentTree<?> EMPTY = new PersistentTree<>(null, null);
+
+    PersistentTree(Node<E> root, Comparator<? super E> comparator) {
+        this.root = root;
+        this.comparator = comparator;
+    }
+
+    /**
+     * 원소를 Comparable로 비교하는 빈 트리
+     * @param <E>
+     * @return
+     */
+    public static <E> PersistentTree<E> empty() {
+        return (PersistentTree<E>) EMPTY;
+    }
+
+    /**
+     * @param comparator - null이면 원소를 Comparable로 비교한다.
+     * @param <E>
+     * @return
+     */
+    public static <E> PersistentTree<E> empty(Comparator<? super E> comparator) {
+        return comparator == null ? empty() : new PersistentTree<>(null, comparator);
+    }
+
+    static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static <E> int compare(Comparator<? super E> comparator, E a, E b) {
+        if(comparator != null) return comparator.compare(a, b);
+        return ((Comparable<E>)a).compareTo(b);
+    }
+
+    private int compare(E a, E b) {
+        return compare(comparator, a, b);
+    }
+
+    /**
+     * obj를 추가한 새 트리를 반환한다. 이 트리는 바뀌지 않는다.
+     * 시간복잡도: O(log n), 새로 만드는 노드 수도 O(log n)
+     * @param obj
+     * @return
+     */
+    public PersistentTree<E> add(E obj) {
+        return new PersistentTree<>(insert(root, obj, null, comparator), comparator);
+    }
+
+    /**
+     * obj 하나를 삭제한 새 트리를 반환한다.
+     * 시간복잡도: O(log n)
+     * @param obj
+     * @return - obj가 없으면 this
+     */
+    public PersistentTree<E> remove(E obj) {
+        boolean[] removed = {false};
+        Node<E> newRoot = delete(root, obj, null, comparator, removed);
+        return removed[0] ? new PersistentTree<>(newRoot, comparator) : this;
+    }
+
+    /**
+     * node를 edit이 고칠 수 있으면 그대로, 아니면 복사해서 반환한다.
+     * @param node
+     * @param edit - null이면 항상 복사한다.
+     * @return
+     */
+    private static <E> Node<E> editable(Node<E> node, Object edit) {
+        if(edit != null && node.edit == edit) return node;
+        return new Node<>(node.data, node.left, node.right, edit);
+    }
+
+    private static <E> Node<E> insert(Node<E> node, E obj, Object edit, Comparator<? super E> comparator) {
+        if(node == null) return new Node<>(obj, null, null, edit);
+        Node<E> copy = editable(node, edit);
+        if(compare(comparator, obj, node.data) >= 0)
+            copy.right = insert(node.right, obj, edit, comparator);
+        else
+            copy.left = insert(node.left, obj, edit, comparator);
+        return rebalance(copy, edit);
+    }
+
+    /**
+     * 찾지 못하면 아무 노드도 복사하지 않고 node를 그대로 반환한다.
+     */
+    private static <E> Node<E> delete(Node<E> node, E obj, Object edit, Comparator<? super E> comparator, boolean[] removed) {
+        if(node == null) return null;
+        int cmp = compare(comparator, obj, node.data);
+        if(cmp < 0) {
+            Node<E> left = delete(node.left, obj, edit, comparator, removed);
+            if(!removed[0]) return node;
+            Node<E> copy = editable(node, edit);
+            copy.left = left;
+            return rebalance(copy, edit);
+        }
+        if(cmp > 0) {
+            Node<E> right = delete(node.right, obj, edit, comparator, removed);
+            if(!removed[0]) return node;
+            Node<E> copy = editable(node, edit);
+            copy.right = right;
+            return rebalance(copy, edit);
+        }
+        removed[0] = true;
+        if(node.left == null) return node.right;
+        if(node.right == null) return node.left;
+        // 자식이 둘이면 오른쪽 서브트리의 가장 작은 원소를 이 자리로 가져온다.
+        Node<E> successor = node.right;
+        while(successor.left != null)
+            successor = successor.left;
+        Node<E> copy = editable(node, edit);
+        copy.data = successor.data;
+        copy.right = deleteMin(node.right, edit);
+        return rebalance(copy, edit);
+    }
+
+    private static <E> Node<E> deleteMin(Node<E> node, Object edit) {
+        if(node.left == null) return node.right;
+        Node<E> copy = editable(node, edit);
+        copy.left = deleteMin(node.left, edit);
+        return rebalance(copy, edit);
+    }
+
+    /**
+     * Tree.rebalance와 같은 규칙으로 회전한다.
+     * node는 이미 edit이 고칠 수 있는 노드이고, 회전으로 바뀌는 자식도 고치기 전에 복사한다.
+     * @param node
+     * @param edit
+     * @return - 회전 후 이 서브트리의 새로운 루트
+     */
+    private static <E> Node<E> rebalance(Node<E> node, Object edit) {
+        int balance = height(node.left) - height(node.right);
+        if(balance > 1) {
+            if(height(node.left.left) < height(node.left.right))
+                node.left = leftRotate(editable(node.left, edit), edit);
+            return rightRotate(node, edit);
+        }
+        if(balance < -1) {
+            if(height(node.right.right) < height(node.right.left))
+                node.right = rightRotate(editable(node.right, edit), edit);
+            return leftRotate(node, edit);
+        }
+        node.update();
+        return node;
+    }
+
+    private static <E> Node<E> leftRotate(Node<E> node, Object edit) {
+        Node<E> tmp = editable(node.right, edit);
+        node.right = tmp.left;
+        tmp.left = node;
+        node.update();
+        tmp.update();
+        return tmp;
+    }
+
+    private static <E> Node<E> rightRotate(Node<E> node, Object edit) {
+        Node<E> tmp = editable(node.left, edit);
+        node.left = tmp.right;
+        tmp.right = node;
+        node.update();
+        tmp.update();
+        return tmp;
+    }
+
+    public boolean contains(E obj) {
+        Node<E> node = root;
+        while(node != null) {
+            int cmp = compare(obj, node.data);
+            if(cmp == 0) return true;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public int height() {
+        return height(root);
+    }
+
+    public E min() {
+        Node<E> node = root;
+        if(node == null) return null;
+        while(node.left != null)
+            node = node.left;
+        return node.data;
+    }
+
+    public E max() {
+        Node<E> node = root;
+        if(node == null) return null;
+        while(node.right != null)
+            node = node.right;
+        return node.data;
+    }
+
+    /**
+     * @param obj
+     * @return - obj보다 작거나 같은 가장 큰 원소, 없으면 null
+     */
+    public E floor(E obj) {
+        Node<E> node = root;
+        E result = null;
+        while(node != null) {
+            int cmp = compare(node.data, obj);
+            if(cmp == 0) return node.data;
+            if(cmp < 0) {
+                result = node.data;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param obj
+     * @return - obj보다 크거나 같은 가장 작은 원소, 없으면 null
+     */
+    public E ceiling(E obj) {
+        Node<E> node = root;
+        E result = null;
+        while(node != null) {
+            int cmp = compare(node.data, obj);
+            if(cmp == 0) return node.data;
+            if(cmp > 0) {
+                result = node.data;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * obj보다 작은 원소의 수
+     * 시간복잡도: O(log n)
+     * @param obj
+     * @return
+     */
+    public int rank(E obj) {
+        Node<E> node = root;
+        int rank = 0;
+        while(node != null) {
+            if(compare(node.data, obj) < 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 정렬했을 때 index번째(0부터 시작) 원소
+     * 시간복잡도: O(log n)
+     * @param index
+     * @return
+     */
+    public E select(int index) {
+        if(index < 0 || index >= size())
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size());
+        Node<E> node = root;
+        while(true) {
+            int leftSize = size(node.left);
+            if(index < leftSize) {
+                node = node.left;
+            } else if(index == leftSize) {
+                return node.data;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 오름차순 중위 순회 반복자
+     * 트리가 바뀌지 않으므로 다른 스레드가 새 버전을 만들어도 영향을 받지 않는다.
+     * @return
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<E> node) {
+                for(; node != null; node = node.left)
+                    stack.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if(stack.isEmpty()) throw new NoSuchElementException();
+                Node<E> node = stack.pop();
+                pushLeft(node.right);
+                return node.data;
+            }
+        };
+    }
+
+    /**
+     * 이 트리에서 시작하는 Builder
+     * 이 트리의 노드는 Builder가 처음 고칠 때 한 번만 복사된다.
+     * @return
+     */
+    public Builder<E> toBuilder() {
+        return new Builder<>(root, comparator);
+    }
+
+    public static <E> Builder<E> builder() {
+        return new Builder<>(null, null);
+    }
+
+    public static <E> Builder<E> builder(Comparator<? super E> comparator) {
+        return new Builder<>(null, comparator);
+    }
+
+    /**
+     * 대량으로 넣고 뺄 때 사용하는 변경 가능한(transient) 트리
+     * Builder가 만들거나 복사한 노드는 이후 같은 Builder에서 복사 없이 직접 고친다.
+     * 그래서 같은 경로를 반복해서 지나가도 노드를 한 번만 복사하고, 대량 적재의 할당량이 일반 트리와 비슷해진다.
+     *
+     * 한 스레드에서만 사용해야 한다.
+     * @param <E>
+     */
+    public static final class Builder<E> {
+        Node<E> root;
+        final Comparator<? super E> comparator;
+        Object edit = new Object();
+
+        Builder(Node<E> root, Comparator<? super E> comparator) {
+            this.root = root;
+            this.comparator = comparator;
+        }
+
+        public Builder<E> add(E obj) {
+            root = insert(root, obj, edit, comparator);
+            return this;
+        }
+
+        public Builder<E> addAll(Iterable<? extends E> elements) {
+            for(E obj : elements)
+                add(obj);
+            return this;
+        }
+
+        /**
+         * @param obj
+         * @return - 삭제했으면 true
+         */
+        public boolean remove(E obj) {
+            boolean[] removed = {false};
+            root = delete(root, obj, edit, comparator, removed);
+            return removed[0];
+        }
+
+        public int size() {
+            return PersistentTree.size(root);
+        }
+
+        /**
+         * 지금까지의 내용으로 변경할 수 없는 트리를 만든다.
+         * 표시를 새로 바꾸므로 반환한 트리의 노드는 이후의 add, remove에서 복사된다. Builder는 계속 사용할 수 있다.
+         * 시간복잡도: O(1)
+         * @return
+         */
+        public PersistentTree<E> build() {
+            edit = new Object();
+            return new PersistentTree<>(root, comparator);
+        }
+    }
+}
@@ -1,99 +1,686 @@
 package tree;
 
+import snapshot.Codec;
+import snapshot.CorruptSnapshotException;
+import snapshot.SnapshotHeader;
+import snapshot.SnapshotReader;
+import snapshot.SnapshotWriter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * 트리 자료구조를 객체화한 클래스
+ * balanced 모드로 만들면 AVL 트리로 동작한다.
+ * 각 노드에 높이를 저장하고, add와 remove 후에 왼쪽과 오른쪽 서브트리의 높이 차이가 2 이상이 된 노드를 회전시켜 균형을 맞춘다.
+ * 정렬된 순서로 데이터가 들어와도 높이가 O(log n)으로 유지된다.
+ *
+ * add, contains, remove는 재귀 대신 반복문으로 내려간다. 트리가 깊어져도 스택 오버플로가 생기지 않는다.
+ * 균형을 맞추거나 높이를 갱신하기 위해 내려온 경로(path)를 배열에 저장해두었다가 아래에서부터 거슬러 올라간다.
+ *
+ * 각 노드는 서브트리의 원소 수(size)도 저장하므로 k번째 원소(select)와 순위(rank)를 O(높이)에 구할 수 있다.
+ * 중위 순회 반복자와 floor, ceiling, higher, lower, subRange로 정렬된 순서의 조회와 범위 탐색을 할 수 있다.
  *
  * @param <E>
  */
-public class Tree<E> {
+public class Tree<E> implements Iterable<E> {
 
     Node<E> root;
     int currentSize;
+    boolean balanced;
 
     /**
      * Tree에서 각각의 노드를 나타내는 Node 내부 클래스
+     * height는 이 노드를 루트로 하는 서브트리의 높이이다.(leaf노드는 1)
+     * size는 이 노드를 루트로 하는 서브트리의 원소 수이다.
      * @param <E>
      */
     class Node<E> {
         E data;
         Node<E> left, right;
+        int height, size;
         public Node(E obj) {
             this.data=obj;
             left = right = null;
-            currentSize = 0;
+            height = 1;
+            size = 1;
+        }
+    }
+
+    /**
+     * 균형을 맞추지 않는 기존의 이진 탐색 트리
+     */
+    public Tree() {
+        this(false);
+    }
+
+    /**
+     * balanced가 true이면 add, remove 후에 회전으로 균형을 맞추는 AVL 트리가 된다.
+     * @param balanced
+     */
+    public Tree(boolean balanced) {
+        this.balanced = balanced;
+    }
+
+    private int height(Node<E> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private int size(Node<E> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private void update(Node<E> node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * 루트에서 특정 노드까지 내려온 경로를 저장하는 배열
+     * balanced 모드에서는 높이가 O(log n)이지만, 아닌 경우엔 한없이 길어질 수 있으므로 가득 차면 2배로 늘린다.
+     */
+    private Node<E>[] path = (Node<E>[]) new Node[64];
+
+    private void push(int depth, Node<E> node) {
+        if(depth == path.length)
+            path = Arrays.copyOf(path, depth * 2);
+        path[depth] = node;
+    }
+
+    /**
+     * path[0..depth-1]을 아래에서부터 거슬러 올라가며 높이와 원소 수를 갱신하고,
+     * balanced 모드이면 균형이 깨진 노드를 회전시켜서 부모(또는 root)에 다시 연결한다.
+     * @param depth
+     */
+    private void retrace(int depth) {
+        for(int i=depth-1; i>=0; i--) {
+            Node<E> node = path[i];
+            path[i] = null;
+            update(node);
+            if(!balanced) continue;
+            Node<E> rebalanced = rebalance(node);
+            if(rebalanced == node) continue;
+            if(i == 0) root = rebalanced;
+            else if(path[i-1].left == node) path[i-1].left = rebalanced;
+            else path[i-1].right = rebalanced;
         }
     }
 
+    /**
+     * 높이 차이(balance factor)로 어떤 회전이 필요한지 결정한다.
+     * 1. 왼쪽이 2 이상 높고, 왼쪽 자식의 왼쪽이 더 높거나 같으면 -> right rotation
+     * 2. 왼쪽이 2 이상 높고, 왼쪽 자식의 오른쪽이 더 높으면 -> left-right rotation
+     * 3. 오른쪽이 2 이상 높고, 오른쪽 자식의 오른쪽이 더 높거나 같으면 -> left rotation
+     * 4. 오른쪽이 2 이상 높고, 오른쪽 자식의 왼쪽이 더 높으면 -> right-left rotation
+     * @param node
+     * @return - 회전 후 이 서브트리의 새로운 루트
+     */
+    private Node<E> rebalance(Node<E> node) {
+        int balance = height(node.left) - height(node.right);
+        if(balance > 1) {
+            if(height(node.left.left) >= height(node.left.right))
+                return rightRotate(node);
+            return leftRightRotate(node);
+        }
+        if(balance < -1) {
+            if(height(node.right.right) >= height(node.right.left))
+                return leftRotate(node);
+            return rightLeftRotate(node);
+        }
+        return node;
+    }
+
     /**
      * 트리에 노드를 추가하는 메소드
+     * root노드가 null일 경우 새로운 Node를 생성하여 포인팅한다.
      *
+     * obj값이 현재 노드보다 크거나 같을 경우 오른쪽으로, 작을 경우 왼쪽으로 간다.
+     * 가려는 쪽의 포인터가 null이면 거기에 새로운 노드를 추가하고, 아니면 그 노드로 내려가서 반복한다.
+     * 추가한 뒤에는 내려온 경로를 거슬러 올라가며 높이를 갱신하고 균형을 맞춘다.
+     * 시간복잡도: balanced 모드 O(log n), 아닐 경우 최악 O(n)
      * @param obj - 추가되는 Node의 data
-     * @param node - 현재 위치의 Node
      */
-    private void add(E obj, Node<E> node) {
+    public void add(E obj) {
+        currentSize++;
+        if(root == null) {
+            root = new Node<E>(obj);
+            return;
+        }
+        Comparable<E> key = (Comparable<E>)obj;
+        Node<E> node = root;
+        int depth = 0;
+        while(true) {
+            push(depth++, node);
+            if(key.compareTo(node.data) >= 0) {
+                //go to the right
+                if(node.right == null) {
+                    node.right = new Node<E>(obj);
+                    break;
+                }
+                node = node.right;
+            } else {
+                if(node.left == null) {
+                    node.left = new Node<E>(obj);
+                    break;
+                }
+                node = node.left;
+            }
+        }
+        retrace(depth);
+    }
+
+    /**
+     * root에서 시작해서 obj를 찾아 내려간다.
+     * node값과 obj가 같으면 true, obj가 크면 오른쪽, 작으면 왼쪽으로 내려간다.
+     * node가 null이 되면 찾고자하는 obj가 없다는 뜻이니 false를 반환한다.
+     * @param obj
+     * @return
+     */
+    public boolean contains(E obj) {
+        Comparable<E> key = (Comparable<E>)obj;
+        Node<E> node = root;
+        while(node != null) {
+            int cmp = key.compareTo(node.data);
+            if(cmp == 0) return true;
+            node = cmp > 0 ? node.right : node.left;
+        }
+        return false;
+    }
 
-        //obj값이 현재 노드보다 크거나 같을 경우 오른쪽으로간다.
-        //만약 현재 노드의 right포인터가 null일경우 거기에 새로운 노드를 추가한다.
-        //right포인터가 null이 아닐경우 해당 노드에서 add메서드를 다시 실행한다.
-        if(((Comparable<E>)obj).compareTo(node.data)>=0){
-            //go to the right
-            if(node.right == null) {
-                node.right = new Node(obj);
-                return;
+    public int size() {
+        return currentSize;
+    }
+
+    public int height() {
+        return height(root);
+    }
+
+    /**
+     * 원소를 정렬된 순서로 스냅샷 파일에 저장한다.
+     * 파일의 구조는 [헤더][원소 레코드들]이고, 원소 레코드는 [길이 int][인코딩된 원소]이다.
+     * @param path
+     * @param codec
+     * @throws IOException
+     */
+    public void writeSnapshot(Path path, Codec<? super E> codec) throws IOException {
+        try(SnapshotWriter writer = new SnapshotWriter(path)) {
+            for(E obj : this) {
+                byte[] bytes = codec.encode(obj);
+                writer.writeInt(bytes.length);
+                writer.writeBytes(bytes);
             }
-            add(obj, node.right);
+            writer.finish(SnapshotHeader.KIND_TREE, currentSize, 0, 0);
         }
+    }
 
-        //
-        if(node.left == null) {
-            node.left = new Node(obj);
-            return;
+    /**
+     * writeSnapshot으로 저장한 파일에서 균형 잡힌 트리(AVL)를 만든다.
+     * 원소가 이미 정렬되어 있으므로 add를 반복하지 않고 가운데 원소를 루트로 하는 방법으로 O(n)에 만든다.
+     * 다 읽은 뒤 CRC32를 확인하고, 다르면 예외를 던진다.
+     * @param path
+     * @param codec
+     * @return
+     * @throws IOException
+     */
+    public static <E> Tree<E> loadSnapshot(Path path, Codec<E> codec) throws IOException {
+        try(SnapshotReader reader = new SnapshotReader(path, SnapshotHeader.KIND_TREE)) {
+            long count = reader.header.count;
+            //레코드 하나는 최소 4바이트이다.
+            if(count > Integer.MAX_VALUE - 8 || count * 4 > reader.header.payloadLength)
+                throw new CorruptSnapshotException("invalid element count: " + count);
+            Object[] sorted = new Object[(int)count];
+            for(int i=0; i<sorted.length; i++)
+                sorted[i] = codec.decode(reader.readBytes(reader.readInt()));
+            reader.verify();
+            return fromSortedArray(sorted);
         }
-        add(obj, node.left);
     }
 
     /**
-     * root노드가 null일 경우를 대비한 오버로딩 메소드
-     * root가 null일 경우 새로운 Node를 생성하여 포인팅한다.
-     * 만약 null이 아닐경우 위에서 작성한 add메서드를 실행한다.
+     * 오름차순으로 정렬된 원소들로 균형 잡힌 트리(AVL)를 O(n)에 만든다.
+     * add를 반복하면 원소마다 루트에서 내려가고 회전하므로 O(n log n)이 든다.
+     * @param sorted - 오름차순이 아니면 IllegalArgumentException을 던진다.
+     * @return
+     */
+    public static <E> Tree<E> fromSorted(Collection<? extends E> sorted) {
+        Object[] array = sorted.toArray();
+        for(int i=1; i<array.length; i++) {
+            if(((Comparable<E>)array[i-1]).compareTo((E)array[i]) > 0)
+                throw new IllegalArgumentException("elements are not sorted at index " + i);
+        }
+        return fromSortedArray(array);
+    }
+
+    /**
+     * 정렬되지 않은 원소들로 균형 잡힌 트리를 만든다.
+     * 배열로 복사해서 정렬한 뒤 fromSorted와 같이 만든다.(O(n log n)이지만 노드마다 내려가거나 회전하지 않는다.)
+     * @param elements
+     * @return
+     */
+    public static <E> Tree<E> from(Collection<? extends E> elements) {
+        Object[] array = elements.toArray();
+        Arrays.sort(array);
+        return fromSortedArray(array);
+    }
+
+    private static <E> Tree<E> fromSortedArray(Object[] sorted) {
+        Tree<E> tree = new Tree<>(true);
+        tree.root = tree.buildBalanced(sorted, 0, sorted.length);
+        tree.currentSize = sorted.length;
+        return tree;
+    }
+
+    /**
+     * 정렬된 배열의 from ~ to-1 범위로 서브트리를 만든다.
+     * 가운데 원소를 루트로 하고 양쪽을 재귀적으로 만들면 모든 노드의 양쪽 서브트리 크기가 1 이하로 차이나므로 AVL 조건을 만족한다.
+     * 재귀의 깊이는 O(log n)이다.
+     */
+    Node<E> buildBalanced(Object[] sorted, int from, int to) {
+        if(from >= to) return null;
+        int mid = (from + to) >>> 1;
+        Node<E> node = new Node<>((E)sorted[mid]);
+        node.left = buildBalanced(sorted, from, mid);
+        node.right = buildBalanced(sorted, mid + 1, to);
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        node.size = to - from;
+        return node;
+    }
+
+    private int compare(E a, E b) {
+        return ((Comparable<E>)a).compareTo(b);
+    }
+
+    /**
+     * 가장 작은 원소 - root에서 왼쪽으로 끝까지 내려간다.
+     * @return - 비어있으면 null
+     */
+    public E min() {
+        Node<E> node = root;
+        if(node == null) return null;
+        while(node.left != null) node = node.left;
+        return node.data;
+    }
+
+    /**
+     * 가장 큰 원소 - root에서 오른쪽으로 끝까지 내려간다.
+     * @return - 비어있으면 null
+     */
+    public E max() {
+        Node<E> node = root;
+        if(node == null) return null;
+        while(node.right != null) node = node.right;
+        return node.data;
+    }
+
+    /**
+     * obj 이하인 원소 중 가장 큰 원소
+     * 내려가면서 조건을 만족하는 노드를 후보로 기억하고, 더 나은 후보가 있을 수 있는 쪽으로 계속 내려간다.
      * @param obj
+     * @return - 없으면 null
      */
-    public void add(E obj) {
-        if(root == null)
-            root = new Node<E>(obj);
-        else
-            add(obj, root);
-        currentSize++;
+    public E floor(E obj) {
+        return below(obj, true);
     }
 
     /**
-     *
+     * obj보다 작은 원소 중 가장 큰 원소
      * @param obj
-     * @param node
-     * @return
+     * @return - 없으면 null
      */
-    private boolean contains(E obj, Node<E> node) {
-        //node가 null이면 찾고자하는 obj가 없다는 뜻이니 false를 반환
-        if(node == null)
-            return false;
-        //node값과 obj가 같으면 갖고있다는 의미이니 true를 반환
-        if(((Comparable<E>)obj).compareTo(node.data)==0)
-            return true;
-        //obj값이 node의 data보다 클 경우 오른쪽 노드를 포인팅하여 재귀
-        if(((Comparable<E>)obj).compareTo(node.data)>0){
-            contains(obj, node.right);
+    public E lower(E obj) {
+        return below(obj, false);
+    }
+
+    /**
+     * obj 이상인 원소 중 가장 작은 원소
+     * @param obj
+     * @return - 없으면 null
+     */
+    public E ceiling(E obj) {
+        return above(obj, true);
+    }
+
+    /**
+     * obj보다 큰 원소 중 가장 작은 원소
+     * @param obj
+     * @return - 없으면 null
+     */
+    public E higher(E obj) {
+        return above(obj, false);
+    }
+
+    private E below(E obj, boolean inclusive) {
+        Node<E> node = root, candidate = null;
+        while(node != null) {
+            int cmp = compare(node.data, obj);
+            if(cmp < 0 || (inclusive && cmp == 0)) {
+                candidate = node;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
         }
-        //그 무엇도 아닐 경우 obj값이 node의 data보다 작다는 의미이니 왼쪽노드를 포인팅하여 재귀
-        return contains(obj, node.left);
+        return candidate == null ? null : candidate.data;
+    }
+
+    private E above(E obj, boolean inclusive) {
+        Node<E> node = root, candidate = null;
+        while(node != null) {
+            int cmp = compare(node.data, obj);
+            if(cmp > 0 || (inclusive && cmp == 0)) {
+                candidate = node;
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return candidate == null ? null : candidate.data;
     }
 
     /**
-     * root에서 시작하기위한 오버로딩 메소드
+     * obj보다 작은 원소의 개수 (정렬했을 때 obj가 들어갈 위치)
+     * 오른쪽으로 내려갈 때마다 왼쪽 서브트리와 현재 노드의 원소 수를 더한다.
+     * 시간복잡도: O(높이)
      * @param obj
      * @return
      */
-    public boolean contains(E obj) {
-        return contains(obj, root);
+    public int rank(E obj) {
+        Node<E> node = root;
+        int rank = 0;
+        while(node != null) {
+            if(compare(node.data, obj) < 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 정렬했을 때 index번째(0부터 시작) 원소
+     * 왼쪽 서브트리의 원소 수와 비교해서 어느 쪽으로 내려갈지 정한다.
+     * 시간복잡도: O(높이)
+     * @param index
+     * @return
+     */
+    public E select(int index) {
+        if(index < 0 || index >= currentSize)
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + currentSize);
+        Node<E> node = root;
+        while(true) {
+            int leftSize = size(node.left);
+            if(index < leftSize) {
+                node = node.left;
+            } else if(index == leftSize) {
+                return node.data;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 오름차순 중위 순회 반복자
+     * @return
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new TreeIterator(null, false, null, false, false);
+    }
+
+    /**
+     * 내림차순 중위 순회 반복자
+     * @return
+     */
+    public Iterator<E> descendingIterator() {
+        return new TreeIterator(null, false, null, false, true);
+    }
+
+    /**
+     * 순위(rank) 범위로 나누는 Spliterator
+     * 각 노드가 서브트리의 원소 수를 알고 있으므로 [index, fence) 범위를 가운데 순위에서 정확히 반으로 나눌 수 있다.(SIZED, SUBSIZED)
+     * @return
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new TreeSpliterator(0, currentSize, null);
+    }
+
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * 여러 스레드에서 서브트리별로 나눠 처리하는 스트림
+     * 처리하는 동안 트리를 변경하면 안 된다.
+     * @return
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * from 이상 to 미만의 원소를 보여주는 뷰
+     * @param from - null이면 처음부터
+     * @param to - null이면 끝까지
+     * @return
+     */
+    public SubRange subRange(E from, E to) {
+        return new SubRange(from, true, to, false);
+    }
+
+    /**
+     * from ~ to 범위의 원소를 보여주는 뷰
+     * 원소를 복사하지 않고, 반복할 때 트리를 직접 따라간다.(lazy)
+     * 뷰를 만든 뒤에 트리에 추가, 삭제된 원소도 반복할 때 반영된다.
+     * @param from - null이면 처음부터
+     * @param fromInclusive
+     * @param to - null이면 끝까지
+     * @param toInclusive
+     * @return
+     */
+    public SubRange subRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new SubRange(from, fromInclusive, to, toInclusive);
+    }
+
+    public class SubRange implements Iterable<E> {
+        final E from, to;
+        final boolean fromInclusive, toInclusive;
+
+        SubRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new TreeIterator(from, fromInclusive, to, toInclusive, false);
+        }
+
+        public Iterator<E> descendingIterator() {
+            return new TreeIterator(from, fromInclusive, to, toInclusive, true);
+        }
+
+        /**
+         * 범위 안의 원소 수
+         * 원소를 세지 않고 rank의 차이로 구하므로 O(높이)이다.
+         * @return
+         */
+        public int size() {
+            int low = from == null ? 0 : fromInclusive ? rank(from) : rank(from) + count(from);
+            int high = to == null ? currentSize : toInclusive ? rank(to) + count(to) : rank(to);
+            return Math.max(0, high - low);
+        }
+    }
+
+    /**
+     * obj와 같은 원소의 개수
+     */
+    private int count(E obj) {
+        E next = higher(obj);
+        return (next == null ? currentSize : rank(next)) - rank(obj);
+    }
+
+    /**
+     * index번째부터 fence-1번째까지의 원소를 중위 순회하는 Spliterator
+     * 처음 원소를 꺼낼 때 size를 이용해 index번째 노드까지 내려가며 TreeIterator와 같이 조상 노드를 스택에 쌓는다.
+     * trySplit은 앞쪽 절반 [index, mid)를 새 Spliterator로 넘기고 자신은 mid번째부터 다시 시작한다.
+     * 이미 순회를 시작했으면 쌓아둔 스택을 앞쪽 Spliterator에 그대로 넘겨준다.
+     */
+    class TreeSpliterator implements Spliterator<E> {
+        int index;
+        final int fence;
+        ArrayDeque<Node<E>> stack;
+
+        TreeSpliterator(int index, int fence, ArrayDeque<Node<E>> stack) {
+            this.index = index;
+            this.fence = fence;
+            this.stack = stack;
+        }
+
+        private void start() {
+            stack = new ArrayDeque<>();
+            Node<E> node = root;
+            int k = index;
+            while(node != null) {
+                int leftSize = size(node.left);
+                if(k < leftSize) {
+                    stack.push(node);
+                    node = node.left;
+                } else if(k == leftSize) {
+                    stack.push(node);
+                    return;
+                } else {
+                    k -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if(index >= fence) return false;
+            if(stack == null) start();
+            Node<E> next = stack.pop();
+            for(Node<E> node = next.right; node != null; node = node.left)
+                stack.push(node);
+            index++;
+            action.accept(next.data);
+            return true;
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if(mid <= index) return null;
+            TreeSpliterator prefix = new TreeSpliterator(index, mid, stack);
+            index = mid;
+            stack = null;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            //원소의 Comparable 순서로 정렬되어 있다.
+            return null;
+        }
+    }
+
+    /**
+     * 스택을 이용한 중위 순회 반복자
+     * 스택에는 아직 방문하지 않은 조상 노드들이 들어있어서 높이만큼의 공간만 사용한다.
+     * 오름차순이면 from 이상인 첫 노드까지 내려가면서 그보다 큰 조상들을 스택에 쌓고 시작한다.
+     * 꺼낸 노드에 오른쪽 자식이 있으면 그 서브트리의 왼쪽 끝까지 스택에 쌓는다.
+     * to를 넘는 원소가 나오면 반복을 끝낸다. 내림차순은 좌우를 바꿔서 같은 방식으로 동작한다.
+     */
+    class TreeIterator implements Iterator<E> {
+        final ArrayDeque<Node<E>> stack = new ArrayDeque<>();
+        final E from, to;
+        final boolean fromInclusive, toInclusive, descending;
+        Node<E> next;
+
+        TreeIterator(E from, boolean fromInclusive, E to, boolean toInclusive, boolean descending) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.descending = descending;
+            Node<E> node = root;
+            while(node != null) {
+                if(descending ? belowTo(node.data) : aboveFrom(node.data)) {
+                    stack.push(node);
+                    node = descending ? node.right : node.left;
+                } else {
+                    node = descending ? node.left : node.right;
+                }
+            }
+            advance();
+        }
+
+        private boolean aboveFrom(E data) {
+            if(from == null) return true;
+            int cmp = compare(data, from);
+            return cmp > 0 || (fromInclusive && cmp == 0);
+        }
+
+        private boolean belowTo(E data) {
+            if(to == null) return true;
+            int cmp = compare(data, to);
+            return cmp < 0 || (toInclusive && cmp == 0);
+        }
+
+        private void advance() {
+            next = stack.poll();
+            if(next == null) return;
+            if(descending ? !aboveFrom(next.data) : !belowTo(next.data)) {
+                next = null;
+                stack.clear();
+                return;
+            }
+            Node<E> node = descending ? next.left : next.right;
+            while(node != null) {
+                stack.push(node);
+                node = descending ? node.right : node.left;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if(next == null) throw new NoSuchElementException();
+            E data = next.data;
+            advance();
+            return data;
+        }
     }
 
     /**
@@ -103,7 +690,47 @@ public class Tree<E> {
      * 3. 자식노드가 두개인 노드를 제거하는 경우, 중위후속자 혹은 중위선임자와 자리를 바꾼 후 제거한다.
      *      중위후속자 - 타겟에서 왼쪽1회 이후 오른쪽으로 계속갔을때의 leaf노드. 타겟보다 작은 노드들 중 가장 큰 노드
      *      중위선임자 - 타겟에서 오른쪽1회 이후 왼쪽으로 계속 갔을때의 leaf노드. 타겟보다 큰 노드들 중 가장 작은 노드
+     *
+     * 3번의 경우 오른쪽 서브트리의 가장 작은 노드의 데이터를 타겟으로 옮긴 뒤 그 노드를 삭제한다.(그 노드는 왼쪽 자식이 없으므로 1, 2번의 경우가 된다.)
+     * 삭제 후에는 내려온 경로를 거슬러 올라가며 높이를 갱신하고 균형을 맞춘다.
+     * @param obj
+     * @return - 삭제했으면 true, obj가 없으면 false
      */
+    public boolean remove(E obj) {
+        Comparable<E> key = (Comparable<E>)obj;
+        Node<E> node = root;
+        int depth = 0;
+        while(node != null) {
+            int cmp = key.compareTo(node.data);
+            if(cmp == 0) break;
+            push(depth++, node);
+            node = cmp > 0 ? node.right : node.left;
+        }
+        if(node == null) {
+            Arrays.fill(path, 0, depth, null);
+            return false;
+        }
+
+        if(node.left != null && node.right != null) {
+            push(depth++, node);
+            Node<E> successor = node.right;
+            while(successor.left != null) {
+                push(depth++, successor);
+                successor = successor.left;
+            }
+            node.data = successor.data;
+            node = successor;
+        }
+
+        Node<E> child = node.left != null ? node.left : node.right;
+        if(depth == 0) root = child;
+        else if(path[depth-1].left == node) path[depth-1].left = child;
+        else path[depth-1].right = child;
+
+        currentSize--;
+        retrace(depth);
+        return true;
+    }
 
     /**
      * 이진트리의 균형을 맞추는 메서드
@@ -118,6 +745,8 @@ public class Tree<E> {
         Node<E> tmp = node.right;
         node.right = tmp.left;
         tmp.left = node;
+        update(node);
+        update(tmp);
         return tmp;
     }
 
@@ -125,6 +754,8 @@ public class Tree<E> {
         Node<E> tmp = node.left;
         node.left = tmp.right;
         tmp.right = node;
+        update(node);
+        update(tmp);
         return tmp;
     }
 
@@ -135,10 +766,10 @@ public class Tree<E> {
         return leftRotate(node);
     }
     // left-right 회전에서 한번은 처음 left회전은 부모노드가, 다음 right회전은 조부모노드가 주체가되므로
-    // 첫 leftRotate는 조부모노드의 오른쪽 노드(부모노드)가, 다음 rightRotate는 조부모노드(node)가 진행한다.
+    // 첫 leftRotate는 조부모노드의 왼쪽 노드(부모노드)가, 다음 rightRotate는 조부모노드(node)가 진행한다.
     public Node<E> leftRightRotate(Node<E> node) {
         node.left = leftRotate(node.left);
-        return rightLeftRotate(node);
+        return rightRotate(node);
     }
 
 }